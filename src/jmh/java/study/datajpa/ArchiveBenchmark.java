@@ -0,0 +1,102 @@
+package study.datajpa;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.archive.MemberArchiver;
+import study.datajpa.archive.TieredMemberReader;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원 100,000 명 중 90% 를 아카이브하기 전(archived=false)과 후(archived=true)의 hot 테이블 조회 시간 비교.
+ * tieredFindById 는 archived=true 일 때 아카이브 세그먼트에서 찾는다.
+ * <pre>./gradlew jmh -PjmhIncludes=ArchiveBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ArchiveBenchmark {
+
+    private static final int MEMBER_COUNT = 100_000;
+    private static final int OLD_COUNT = 90_000;
+
+    @Param({"false", "true"})
+    public boolean archived;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager em;
+    private TransactionTemplate readOnly;
+    private MemberRepository memberRepository;
+    private TieredMemberReader tieredMemberReader;
+    private long oldId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Path archiveDir = Path.of("build", "jmh-archive", UUID.randomUUID().toString());
+        context = BenchmarkContext.start("--archive.dir=" + archiveDir);
+        em = context.getBean(EntityManager.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        memberRepository = context.getBean(MemberRepository.class);
+        tieredMemberReader = context.getBean(TieredMemberReader.class);
+
+        long[] ids = BenchmarkContext.seedMembers(context, 100, MEMBER_COUNT);
+        oldId = ids[OLD_COUNT / 2];
+        LocalDateTime threshold = LocalDateTime.now().minusDays(30);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("update member set created_date = ? where member_id <= ?",
+                threshold.minusDays(1), ids[OLD_COUNT - 1]);
+        if (archived) {
+            context.getBean(MemberArchiver.class).archive(threshold);
+        }
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> findByUsername() {
+        return readOnly.execute(status -> memberRepository.findByUsername("member95000"));
+    }
+
+    @Benchmark
+    public Page<Member> findPage() {
+        return readOnly.execute(status -> memberRepository.findAll(PageRequest.of(100, 20)));
+    }
+
+    @Benchmark
+    public long count() {
+        return memberRepository.count();
+    }
+
+    @Benchmark
+    public Long countByAgeRange() {
+        return readOnly.execute(status -> em.createQuery("select count(m) from Member m where m.age between 20 and 40", Long.class)
+                .getSingleResult());
+    }
+
+    @Benchmark
+    public Optional<MemberDto> tieredFindById() {
+        return readOnly.execute(status -> tieredMemberReader.findById(oldId));
+    }
+}
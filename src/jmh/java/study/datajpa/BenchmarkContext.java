@@ -0,0 +1,58 @@
+package study.datajpa;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start(String... args) {
+        return new SpringApplicationBuilder(DatajpaApplication.class)
+                .profiles("embedded")
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run(args);
+    }
+
+    /**
+     * teamCount 개의 팀에 memberCount 명의 회원을 나눠 저장하고 회원 id 를 돌려준다.
+     * username 은 member{i}, age 는 i % 100.
+     */
+    public static long[] seedMembers(ConfigurableApplicationContext context, int teamCount, int memberCount) {
+        EntityManager em = context.getBean(EntityManager.class);
+        TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        return tx.execute(status -> {
+            List<Team> teams = new ArrayList<>();
+            for (int i = 0; i < teamCount; i++) {
+                Team team = new Team("team" + i);
+                em.persist(team);
+                teams.add(team);
+            }
+
+            long[] ids = new long[memberCount];
+            for (int i = 0; i < memberCount; i++) {
+                Member member = new Member("member" + i, i % 100, teams.get(i % teamCount));
+                em.persist(member);
+                ids[i] = member.getId();
+                if (i % 1000 == 999) {
+                    em.flush();
+                    em.clear();
+                    teams.replaceAll(team -> em.getReference(Team.class, team.getId()));
+                }
+            }
+            return ids;
+        });
+    }
+}
@@ -0,0 +1,85 @@
+package study.datajpa;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.analytics.AgeStats;
+import study.datajpa.analytics.MemberColumnarSnapshot;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 같은 집계를 JPQL 과 컬럼 스냅샷으로 계산했을 때 비교 (회원 100,000 명, 팀 100 개).
+ * <pre>./gradlew jmh -PjmhIncludes=ColumnarSnapshotBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ColumnarSnapshotBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private EntityManager em;
+    private TransactionTemplate readOnly;
+    private MemberColumnarSnapshot snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("--analytics.snapshot.enabled=true", "--analytics.snapshot.refresh-interval=PT1H");
+        em = context.getBean(EntityManager.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        snapshot = context.getBean(MemberColumnarSnapshot.class);
+        BenchmarkContext.seedMembers(context, 100, 100_000);
+        snapshot.refresh();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object[] ageStatsJpql() {
+        return readOnly.execute(status -> em.createQuery(
+                        "select count(m), sum(m.age), avg(m.age), max(m.age), min(m.age) from Member m where m.age between 20 and 40",
+                        Object[].class)
+                .getSingleResult());
+    }
+
+    @Benchmark
+    public AgeStats ageStatsSnapshot() {
+        return snapshot.ageStats(20, 40);
+    }
+
+    @Benchmark
+    public List<Object[]> groupByTeamJpql() {
+        return readOnly.execute(status -> em.createQuery(
+                        "select m.team.id, count(m), sum(m.age), min(m.age), max(m.age) from Member m group by m.team.id",
+                        Object[].class)
+                .getResultList());
+    }
+
+    @Benchmark
+    public Map<Long, AgeStats> groupByTeamSnapshot() {
+        return snapshot.ageStatsByTeam();
+    }
+
+    @Benchmark
+    public List<Long> usernameJpql() {
+        return readOnly.execute(status -> em.createQuery("select m.id from Member m where m.username = :username", Long.class)
+                .setParameter("username", "member77777")
+                .getResultList());
+    }
+
+    @Benchmark
+    public long[] usernameSnapshot() {
+        return snapshot.findIdsByUsername("member77777");
+    }
+}
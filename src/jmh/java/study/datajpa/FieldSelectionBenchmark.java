@@ -0,0 +1,76 @@
+package study.datajpa;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberField;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 넓은 페이지(page size 1000)에서 전체 컬럼 조회 + 직렬화와 ?fields= 조회 + 직렬화 비교.
+ * 시작할 때 각 방식의 응답 크기(바이트)를 출력한다.
+ * <pre>./gradlew jmh -PjmhIncludes=FieldSelectionBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class FieldSelectionBenchmark {
+
+    private static final PageRequest WIDE_PAGE = PageRequest.of(0, 1000);
+    private static final List<MemberField> ALL_FIELDS = List.of(MemberField.values());
+    private static final List<MemberField> ID_USERNAME = List.of(MemberField.ID, MemberField.USERNAME);
+    private static final List<MemberField> ID = List.of(MemberField.ID);
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private ObjectMapper objectMapper;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = BenchmarkContext.start();
+        memberRepository = context.getBean(MemberRepository.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        BenchmarkContext.seedMembers(context, 100, 10_000);
+
+        System.out.printf("%n[response bytes, page size %d] entity=%d, fields(all)=%d, fields(id,username)=%d, fields(id)=%d%n",
+                WIDE_PAGE.getPageSize(), entityPage().length, fields(ALL_FIELDS).length, fields(ID_USERNAME).length, fields(ID).length);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] entityPage() throws Exception {
+        return objectMapper.writeValueAsBytes(readOnly.execute(status ->
+                memberRepository.findAll(WIDE_PAGE).map(MemberDto::new)));
+    }
+
+    @Benchmark
+    public byte[] fieldsIdUsername() throws Exception {
+        return fields(ID_USERNAME);
+    }
+
+    @Benchmark
+    public byte[] fieldsId() throws Exception {
+        return fields(ID);
+    }
+
+    private byte[] fields(List<MemberField> fields) throws Exception {
+        return objectMapper.writeValueAsBytes(readOnly.execute(status -> memberRepository.findFields(fields, WIDE_PAGE)));
+    }
+}
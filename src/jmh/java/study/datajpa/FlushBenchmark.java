@@ -0,0 +1,76 @@
+package study.datajpa;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.ManagedEntity;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.entity.Member;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 영속성 컨텍스트에 회원 10,000 + 팀 100 개가 있을 때 flush 한 번에 걸리는 시간.
+ * 바이트코드 향상 여부는 빌드로 결정되므로 두 번 실행해서 비교한다.
+ * <pre>
+ * ./gradlew jmh -PjmhIncludes=FlushBenchmark
+ * ./gradlew jmh -PjmhIncludes=FlushBenchmark -PnoEnhance
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class FlushBenchmark {
+
+    private static final int MEMBER_COUNT = 10_000;
+    private static final int TEAM_COUNT = 100;
+
+    //flush 직전에 변경할 회원 수
+    @Param({"0", "100"})
+    public int dirtyCount;
+
+    private ConfigurableApplicationContext context;
+    private EntityManagerFactory emf;
+    private EntityManager em;
+    private int round;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        emf = context.getBean(EntityManagerFactory.class);
+        BenchmarkContext.seedMembers(context, TEAM_COUNT, MEMBER_COUNT);
+        System.out.printf("%n[enhanced=%s]%n", ManagedEntity.class.isAssignableFrom(Member.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void load() {
+        em = emf.createEntityManager();
+        em.getTransaction().begin();
+        List<Member> members = em.createQuery("select m from Member m join fetch m.team", Member.class)
+                .getResultList();
+        round++;
+        for (int i = 0; i < dirtyCount; i++) {
+            members.get(i).setAge(round % 100);
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void close() {
+        em.getTransaction().rollback();
+        em.close();
+    }
+
+    @Benchmark
+    public void flush() {
+        em.flush();
+    }
+}
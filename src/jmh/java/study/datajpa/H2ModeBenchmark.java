@@ -0,0 +1,95 @@
+package study.datajpa;
+
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.FileSystemUtils;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 내장(in-process) H2 와 TCP H2 의 지연 시간 / 처리량 비교.
+ * 두 모드 모두 같은 MVStore 설정을 쓰고, TCP 서버는 벤치마크 안에서 직접 띄운다.
+ * <pre>./gradlew jmh -PjmhIncludes=H2ModeBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+public class H2ModeBenchmark {
+
+    private static final String SETTINGS = ";CACHE_SIZE=131072;WRITE_DELAY=500;LOCK_TIMEOUT=10000";
+
+    @Param({"embedded", "tcp"})
+    public String mode;
+
+    private Path baseDir;
+    private Server tcpServer;
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        baseDir = Files.createTempDirectory("h2-" + mode);
+        String url;
+        if ("tcp".equals(mode)) {
+            int port = freePort();
+            tcpServer = Server.createTcpServer("-tcpPort", String.valueOf(port),
+                    "-baseDir", baseDir.toString(), "-ifNotExists").start();
+            url = "jdbc:h2:tcp://localhost:" + port + "/datajpa" + SETTINGS;
+        } else {
+            url = "jdbc:h2:file:" + baseDir.resolve("datajpa") + SETTINGS + ";DB_CLOSE_ON_EXIT=FALSE";
+        }
+
+        context = BenchmarkContext.start("--spring.datasource.url=" + url);
+        memberRepository = context.getBean(MemberRepository.class);
+        ids = BenchmarkContext.seedMembers(context, 100, 10_000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        if (tcpServer != null) {
+            tcpServer.stop();
+        }
+        FileSystemUtils.deleteRecursively(baseDir);
+    }
+
+    @Benchmark
+    public Optional<Member> findById() {
+        return memberRepository.findById(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+
+    @Benchmark
+    public List<Member> findByUsername() {
+        return memberRepository.findByUsername("member" + ThreadLocalRandom.current().nextInt(ids.length));
+    }
+
+    @Benchmark
+    public Page<Member> findByAge() {
+        PageRequest pageRequest = PageRequest.of(0, 20, Sort.Direction.DESC, "username");
+        return memberRepository.findByAge(ThreadLocalRandom.current().nextInt(100), pageRequest);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
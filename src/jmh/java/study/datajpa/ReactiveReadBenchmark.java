@@ -0,0 +1,71 @@
+package study.datajpa;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.reactive.MemberReactiveRepository;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 높은 동시성(64 스레드)에서 JPA 와 R2DBC 조회 처리량 비교.
+ * list*: findMemberDto 전체(1,000 건) 스트리밍, lookup*: findByUsername 단건.
+ * r2dbc-h2 드라이버는 내부적으로 H2 의 동기 API 를 호출하므로 차이는 주로 커넥션 점유/결과 적재 방식에서 나온다.
+ * <pre>./gradlew jmh -PjmhIncludes=ReactiveReadBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(64)
+@Fork(1)
+public class ReactiveReadBenchmark {
+
+    private static final int MEMBER_COUNT = 1_000;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private MemberReactiveRepository memberReactiveRepository;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        memberRepository = context.getBean(MemberRepository.class);
+        memberReactiveRepository = context.getBean(MemberReactiveRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        BenchmarkContext.seedMembers(context, 10, MEMBER_COUNT);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int listJpa() {
+        return readOnly.execute(status -> memberRepository.findMemberDto().size());
+    }
+
+    @Benchmark
+    public long listR2dbc() {
+        return memberReactiveRepository.findMemberDto().count().block();
+    }
+
+    @Benchmark
+    public int lookupJpa() {
+        String username = "member" + ThreadLocalRandom.current().nextInt(MEMBER_COUNT);
+        return readOnly.execute(status -> memberRepository.findByUsername(username).size());
+    }
+
+    @Benchmark
+    public long lookupR2dbc() {
+        String username = "member" + ThreadLocalRandom.current().nextInt(MEMBER_COUNT);
+        return memberReactiveRepository.findByUsername(username).count().block();
+    }
+}
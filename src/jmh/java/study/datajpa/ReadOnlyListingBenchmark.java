@@ -0,0 +1,80 @@
+package study.datajpa;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 큰 목록 조회 요청을 읽기 전용 트랜잭션(readOnly=true)과 일반 트랜잭션으로 실행했을 때의 비교.
+ * 시간/할당량은 JMH 결과로, 요청 하나가 붙잡고 있는 힙(영속성 컨텍스트 스냅샷 포함)은 시작할 때 출력한다.
+ * <pre>./gradlew jmh -PjmhIncludes=ReadOnlyListingBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReadOnlyListingBenchmark {
+
+    private static final PageRequest BIG_PAGE = PageRequest.of(0, 2000);
+
+    @Param({"true", "false"})
+    public boolean readOnly;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate transaction;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        memberRepository = context.getBean(MemberRepository.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transaction.setReadOnly(readOnly);
+        BenchmarkContext.seedMembers(context, 100, 10_000);
+
+        listing();
+        System.out.printf("%n[readOnly=%s] retained heap per request ~ %d KB%n", readOnly, retainedBytes() / 1024);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> listing() {
+        return transaction.execute(status -> memberRepository.findAll(BIG_PAGE).getContent());
+    }
+
+    private long retainedBytes() {
+        long before = usedHeapAfterGc();
+        long[] during = new long[1];
+        transaction.executeWithoutResult(status -> {
+            List<Member> page = memberRepository.findAll(BIG_PAGE).getContent();
+            during[0] = usedHeapAfterGc();
+            if (page.isEmpty()) {
+                throw new IllegalStateException("no members");
+            }
+        });
+        return during[0] - before;
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
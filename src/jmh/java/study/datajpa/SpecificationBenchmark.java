@@ -0,0 +1,62 @@
+package study.datajpa;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.MemberSpec;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 같은 구조의 Specification 을 매번 Criteria 로 만드는 경우(criteria)와 컴파일 캐시를 쓰는 경우(compiled)의
+ * 호출당 시간과 할당량(gc.alloc.rate.norm) 비교.
+ * <pre>./gradlew jmh -PjmhIncludes=SpecificationBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SpecificationBenchmark {
+
+    private static final int MEMBER_COUNT = 10_000;
+    private static final int TEAM_COUNT = 100;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        memberRepository = context.getBean(MemberRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        BenchmarkContext.seedMembers(context, TEAM_COUNT, MEMBER_COUNT);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> criteria() {
+        int i = ThreadLocalRandom.current().nextInt(MEMBER_COUNT);
+        return readOnly.execute(status -> memberRepository.findAll(
+                MemberSpec.username("member" + i).and(MemberSpec.teamName("team" + i % TEAM_COUNT))));
+    }
+
+    @Benchmark
+    public List<Member> compiled() {
+        int i = ThreadLocalRandom.current().nextInt(MEMBER_COUNT);
+        return readOnly.execute(status -> memberRepository.findCompiled(
+                MemberSpec.username("member" + i).and(MemberSpec.teamName("team" + i % TEAM_COUNT))));
+    }
+}
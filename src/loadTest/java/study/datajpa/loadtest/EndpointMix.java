@@ -0,0 +1,104 @@
+package study.datajpa.loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.BiFunction;
+
+/**
+ * 엔드포인트 이름과 가중치. "member:5,member2:2,members:2,hello:1" 이면 요청의 50% 가 /members/{id} 다.
+ * <ul>
+ *     <li>member  : /members/{id}</li>
+ *     <li>member2 : /members2/{id} (도메인 클래스 컨버터)</li>
+ *     <li>members : /members?page=..&size=20 (앞쪽 PAGES 페이지 중 임의)</li>
+ *     <li>hello   : /hello</li>
+ * </ul>
+ * id 는 생성한 회원 id 구간에서 균등하게 뽑는다.
+ */
+class EndpointMix {
+
+    private static final int PAGES = 50;
+
+    private static final Map<String, BiFunction<Ids, SplittableRandom, String>> PATHS = Map.of(
+            "member", (ids, random) -> "/members/" + ids.next(random),
+            "member2", (ids, random) -> "/members2/" + ids.next(random),
+            "members", (ids, random) -> "/members?page=" + random.nextInt(PAGES) + "&size=20",
+            "hello", (ids, random) -> "/hello"
+    );
+
+    private final List<String> names = new ArrayList<>();
+    private final double[] cdf;
+    private final Ids ids;
+
+    private EndpointMix(Map<String, Integer> weights, Ids ids) {
+        this.ids = ids;
+        this.cdf = new double[weights.size()];
+        double total = weights.values().stream().mapToInt(Integer::intValue).sum();
+        double sum = 0;
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            names.add(entry.getKey());
+            sum += entry.getValue();
+            cdf[names.size() - 1] = sum / total;
+        }
+    }
+
+    static EndpointMix parse(String mix, long firstId, long count) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] nameWeight = part.trim().split(":");
+            String name = nameWeight[0].trim();
+            if (!PATHS.containsKey(name)) {
+                throw new IllegalArgumentException("알 수 없는 엔드포인트: " + name + " (" + PATHS.keySet() + ")");
+            }
+            int weight = nameWeight.length > 1 ? Integer.parseInt(nameWeight[1].trim()) : 1;
+            if (weight > 0) {
+                weights.merge(name, weight, Integer::sum);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("mix 가 비어 있습니다: " + mix);
+        }
+        return new EndpointMix(weights, new Ids(firstId, count));
+    }
+
+    List<String> names() {
+        return names;
+    }
+
+    // 가중치대로 엔드포인트를 고르고 경로를 만든다
+    Request next(SplittableRandom random) {
+        double r = random.nextDouble();
+        int index = 0;
+        while (index < cdf.length - 1 && r >= cdf[index]) {
+            index++;
+        }
+        String name = names.get(index);
+        return new Request(index, PATHS.get(name).apply(ids, random));
+    }
+
+    static class Request {
+        final int endpoint;
+        final String path;
+
+        Request(int endpoint, String path) {
+            this.endpoint = endpoint;
+            this.path = path;
+        }
+    }
+
+    private static class Ids {
+        private final long first;
+        private final long count;
+
+        Ids(long first, long count) {
+            this.first = first;
+            this.count = count;
+        }
+
+        long next(SplittableRandom random) {
+            return first + random.nextLong(Math.max(1, count));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package study.datajpa.loadtest;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.DatajpaApplication;
+import study.datajpa.datagen.DataGenReport;
+import study.datajpa.datagen.DataGenSpec;
+import study.datajpa.datagen.DataGenerator;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * 애플리케이션을 내장 H2(embedded 프로필)로 임의 포트에 띄우고, DataGenerator 로 회원을 만든 뒤
+ * 정해진 도착률(rate)로 HTTP 요청을 보내 엔드포인트별 지연 시간 분포와 처리량을 남긴다.
+ * <pre>
+ * ./gradlew loadTest -PloadRate=500 -PloadDuration=60s -PloadMix=member:5,member2:2,members:2,hello:1 -PloadName=before
+ * ./gradlew loadTest -PloadRate=500 -PloadDuration=60s -PloadMix=member:5,member2:2,members:2,hello:1 -PloadName=after -PloadBaseline=before
+ * </pre>
+ * 옵션 (--key=value): rate(요청/초), duration, warmup, mix, members, seed, max-in-flight, timeout, name, baseline.
+ * warmup 동안 보낸 요청은 기록하지 않는다. 같은 seed 면 같은 데이터에 같은 순서의 요청을 보낸다.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        double rate = Double.parseDouble(options.getOrDefault("rate", "200"));
+        Duration duration = DurationStyle.detectAndParse(options.getOrDefault("duration", "30s"));
+        Duration warmup = DurationStyle.detectAndParse(options.getOrDefault("warmup", "10s"));
+        String mix = options.getOrDefault("mix", "member:5,member2:2,members:2,hello:1");
+        long members = Long.parseLong(options.getOrDefault("members", "100000"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        int maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "2000"));
+        Duration timeout = DurationStyle.detectAndParse(options.getOrDefault("timeout", "10s"));
+        String name = options.getOrDefault("name", "latest");
+        String baseline = options.get("baseline");
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DatajpaApplication.class)
+                .profiles("embedded")
+                .logStartupInfo(false)
+                .run("--server.port=0", "--archive.dir=build/loadtest/archive");
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+            DataGenSpec spec = new DataGenSpec();
+            spec.setSeed(seed);
+            spec.setTeams((int) Math.max(1, members / 100));
+            spec.setMembers(members);
+            DataGenReport data = context.getBean(DataGenerator.class).generate(spec);
+
+            EndpointMix endpoints = EndpointMix.parse(mix, data.getFirstMemberId(), data.getMembers());
+            OpenModelDriver driver = new OpenModelDriver(port, endpoints, maxInFlight, timeout);
+            SplittableRandom random = new SplittableRandom(seed);
+            if (!warmup.isZero()) {
+                driver.run(rate, warmup, random.split());
+            }
+            OpenModelDriver.Run run = driver.run(rate, duration, random.split());
+
+            LoadTestReport report = new LoadTestReport(Path.of("build", "reports", "loadtest"));
+            List<String> header = List.of(
+                    String.format("rate=%s/s duration=%s warmup=%s max-in-flight=%d timeout=%s", rate, duration, warmup, maxInFlight, timeout),
+                    "mix=" + mix,
+                    "members=" + members + " seed=" + seed,
+                    "latency: 예정 시각 기준 (coordinated omission 보정), svc: 보낸 시각 기준, err: 실패한 요청의 예정 시각 기준, 단위 ms");
+            Path dir = report.write(name, header, run);
+            if (baseline != null) {
+                report.compare(baseline, name);
+            }
+            System.out.println("report: " + dir.toAbsolutePath());
+        } finally {
+            context.close();
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("--key=value 형식이어야 합니다: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+}
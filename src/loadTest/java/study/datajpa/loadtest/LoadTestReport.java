@@ -0,0 +1,158 @@
+package study.datajpa.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 결과를 build/reports/loadtest/{name}/ 에 남긴다.
+ * <ul>
+ *     <li>summary.tsv : 엔드포인트별 처리량과 백분위수 (ms). 실행 시각 같은 매번 바뀌는 값은 넣지 않아서 두 실행을 바로 diff 할 수 있다.
+ *     p* / max / mean 은 성공한 요청, err_* 는 실패한 요청(오류, 타임아웃, 4xx/5xx)의 지연 시간이다</li>
+ *     <li>{endpoint}.hgrm : HdrHistogram 백분위 분포 (HistogramLogAnalyzer / hdrhistogram.github.io/HdrHistogram/plotFiles.html 로 겹쳐 그린다)</li>
+ *     <li>compare-{baseline}.txt : 기준 실행과의 차이 (baseline 을 줬을 때)</li>
+ * </ul>
+ */
+class LoadTestReport {
+
+    private static final String[] COLUMNS = {"endpoint", "requests", "errors", "rps",
+            "p50", "p90", "p99", "p99.9", "p99.99", "max", "mean", "svc_p50", "svc_p99", "err_p50", "err_p99", "err_max"};
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+    private static final String[] COMPARED = {"rps", "p50", "p99", "p99.9", "max"};
+
+    private final Path root;
+
+    LoadTestReport(Path root) {
+        this.root = root;
+    }
+
+    Path write(String name, List<String> header, OpenModelDriver.Run run) {
+        Path dir = root.resolve(name);
+        double seconds = run.durationNanos / (double) TimeUnit.SECONDS.toNanos(1);
+
+        List<String> lines = new ArrayList<>();
+        header.forEach(line -> lines.add("# " + line));
+        lines.add(String.format(Locale.ROOT, "# sent=%d achieved=%.1f/s", run.sent, run.sent / seconds));
+        lines.add(String.join("\t", COLUMNS));
+
+        Histogram allLatency = new Histogram(3);
+        Histogram allService = new Histogram(3);
+        Histogram allErrorLatency = new Histogram(3);
+        long allErrors = 0;
+        List<String> errors = new ArrayList<>();
+        try {
+            Files.createDirectories(dir);
+            for (OpenModelDriver.EndpointStats endpoint : run.endpoints) {
+                lines.add(row(endpoint.name, endpoint.latency, endpoint.service, endpoint.errorLatency, endpoint.errorCount(), seconds));
+                writeDistribution(dir.resolve(endpoint.name + ".hgrm"), endpoint.latency);
+                allLatency.add(endpoint.latency);
+                allService.add(endpoint.service);
+                allErrorLatency.add(endpoint.errorLatency);
+                allErrors += endpoint.errorCount();
+                new TreeMap<>(endpoint.errors).forEach((cause, count) ->
+                        errors.add("# error\t" + endpoint.name + "\t" + cause + "\t" + count.sum()));
+            }
+            lines.add(row("all", allLatency, allService, allErrorLatency, allErrors, seconds));
+            writeDistribution(dir.resolve("all.hgrm"), allLatency);
+            lines.addAll(errors);
+            Files.write(dir.resolve("summary.tsv"), lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        lines.forEach(System.out::println);
+        return dir;
+    }
+
+    private static String row(String name, Histogram latency, Histogram service, Histogram errorLatency, long errors, double seconds) {
+        StringJoiner row = new StringJoiner("\t")
+                .add(name)
+                .add(String.valueOf(latency.getTotalCount()))
+                .add(String.valueOf(errors))
+                .add(String.format(Locale.ROOT, "%.1f", latency.getTotalCount() / seconds));
+        for (double percentile : PERCENTILES) {
+            row.add(millis(latency.getValueAtPercentile(percentile)));
+        }
+        return row.add(millis(latency.getMaxValue()))
+                .add(millis(latency.getMean()))
+                .add(millis(service.getValueAtPercentile(50)))
+                .add(millis(service.getValueAtPercentile(99)))
+                .add(millis(errorLatency.getValueAtPercentile(50)))
+                .add(millis(errorLatency.getValueAtPercentile(99)))
+                .add(millis(errorLatency.getMaxValue()))
+                .toString();
+    }
+
+    private static String millis(double micros) {
+        return String.format(Locale.ROOT, "%.3f", micros / 1000.0);
+    }
+
+    private static void writeDistribution(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+            histogram.outputPercentileDistribution(out, 5, 1000.0);
+        }
+    }
+
+    /**
+     * 두 실행의 summary.tsv 를 엔드포인트별로 비교한다. 지연 시간은 줄수록, rps 는 늘수록 좋다.
+     */
+    void compare(String baseline, String current) {
+        Map<String, Map<String, String>> before = read(root.resolve(baseline).resolve("summary.tsv"));
+        Map<String, Map<String, String>> after = read(root.resolve(current).resolve("summary.tsv"));
+
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format(Locale.ROOT, "# %s -> %s (ms, rps)", baseline, current));
+        lines.add(String.format(Locale.ROOT, "%-10s %-7s %12s %12s %9s", "endpoint", "metric", baseline, current, "delta"));
+        after.forEach((endpoint, values) -> {
+            Map<String, String> old = before.get(endpoint);
+            if (old == null) {
+                return;
+            }
+            for (String metric : COMPARED) {
+                double a = Double.parseDouble(old.get(metric));
+                double b = Double.parseDouble(values.get(metric));
+                String delta = a == 0 ? "-" : String.format(Locale.ROOT, "%+.1f%%", (b - a) * 100 / a);
+                lines.add(String.format(Locale.ROOT, "%-10s %-7s %12.3f %12.3f %9s", endpoint, metric, a, b, delta));
+            }
+        });
+        try {
+            Files.write(root.resolve(current).resolve("compare-" + baseline + ".txt"), lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        lines.forEach(System.out::println);
+    }
+
+    private static Map<String, Map<String, String>> read(Path summary) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(summary, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("summary.tsv 를 읽을 수 없습니다: " + summary, e);
+        }
+        Map<String, Map<String, String>> rows = new LinkedHashMap<>();
+        String[] columns = null;
+        for (String line : lines) {
+            if (line.startsWith("#")) {
+                continue;
+            }
+            String[] values = line.split("\t");
+            if (columns == null) {
+                columns = values;
+                continue;
+            }
+            Map<String, String> row = new HashMap<>();
+            for (int i = 0; i < columns.length && i < values.length; i++) {
+                row.put(columns[i], values[i]);
+            }
+            rows.put(values[0], row);
+        }
+        return rows;
+    }
+}
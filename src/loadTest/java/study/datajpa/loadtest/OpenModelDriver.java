@@ -0,0 +1,146 @@
+package study.datajpa.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 열린 모델(open model) 부하: 응답을 기다리지 않고 정해진 시각마다 요청을 보낸다 (constant arrival rate).
+ * <p>
+ * i 번째 요청의 예정 시각은 start + i / rate 다. 지연 시간은 실제로 보낸 시각이 아니라 예정 시각부터 잰다.
+ * 서버가 밀려서 보내는 쪽이 늦어지거나(in-flight 한도) 요청이 줄을 서도 그 대기 시간이 빠지지 않으므로
+ * coordinated omission 이 보정된 값이다. 보낸 시각부터 잰 값(service time)도 따로 남겨 비교한다.
+ */
+class OpenModelDriver {
+
+    private final HttpClient client;
+    private final URI base;
+    private final EndpointMix mix;
+    private final int maxInFlight;
+    private final Duration timeout;
+
+    OpenModelDriver(int port, EndpointMix mix, int maxInFlight, Duration timeout) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+        this.base = URI.create("http://localhost:" + port);
+        this.mix = mix;
+        this.maxInFlight = maxInFlight;
+        this.timeout = timeout;
+    }
+
+    Run run(double rate, Duration duration, SplittableRandom random) throws InterruptedException {
+        List<EndpointStats> stats = new ArrayList<>();
+        for (String name : mix.names()) {
+            stats.add(new EndpointStats(name));
+        }
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long sent = 0;
+
+        for (long i = 0; ; i++) {
+            long intended = start + (long) (i * intervalNanos);
+            if (intended >= end) {
+                break;
+            }
+            long now;
+            while ((now = System.nanoTime()) < intended) {
+                LockSupport.parkNanos(intended - now);
+            }
+
+            EndpointMix.Request request = mix.next(random);
+            EndpointStats endpoint = stats.get(request.endpoint);
+            inFlight.acquire();
+            long sentAt = System.nanoTime();
+            sent++;
+            client.sendAsync(HttpRequest.newBuilder(base.resolve(request.path)).timeout(timeout).GET().build(),
+                            HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        long done = System.nanoTime();
+                        try {
+                            if (error != null) {
+                                endpoint.error(rootCause(error).getClass().getSimpleName(), done - intended);
+                            } else if (response.statusCode() >= 400) {
+                                endpoint.error("HTTP " + response.statusCode(), done - intended);
+                            } else {
+                                endpoint.record(done - intended, done - sentAt);
+                            }
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+        }
+        // 남은 요청이 모두 끝날 때까지 기다린다
+        inFlight.acquire(maxInFlight);
+        inFlight.release(maxInFlight);
+        return new Run(stats, sent, System.nanoTime() - start, duration.toNanos());
+    }
+
+    private static Throwable rootCause(Throwable error) {
+        while (error.getCause() != null && error.getCause() != error) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    static class Run {
+        final List<EndpointStats> endpoints;
+        final long sent;
+        final long elapsedNanos;
+        final long durationNanos;
+
+        Run(List<EndpointStats> endpoints, long sent, long elapsedNanos, long durationNanos) {
+            this.endpoints = endpoints;
+            this.sent = sent;
+            this.elapsedNanos = elapsedNanos;
+            this.durationNanos = durationNanos;
+        }
+    }
+
+    /**
+     * 엔드포인트 하나의 지연 시간 히스토그램 (마이크로초). latency 는 예정 시각 기준, service 는 보낸 시각 기준.
+     * 실패(연결 오류, 타임아웃, 4xx/5xx)는 성공 분포를 흐리지 않도록 errorLatency 에 예정 시각 기준으로 따로 남긴다.
+     */
+    static class EndpointStats {
+        final String name;
+        final Histogram latency = new ConcurrentHistogram(3);
+        final Histogram service = new ConcurrentHistogram(3);
+        final Histogram errorLatency = new ConcurrentHistogram(3);
+        final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+        EndpointStats(String name) {
+            this.name = name;
+        }
+
+        void record(long latencyNanos, long serviceNanos) {
+            latency.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+            service.recordValue(TimeUnit.NANOSECONDS.toMicros(serviceNanos));
+        }
+
+        void error(String cause, long latencyNanos) {
+            errors.computeIfAbsent(cause, key -> new LongAdder()).increment();
+            errorLatency.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+        }
+
+        long errorCount() {
+            return errors.values().stream().mapToLong(LongAdder::sum).sum();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package study.datajpa.analytics;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 나이 집계 결과 (count / sum / min / max / avg). 대상이 없으면 count 0, 나머지 0.
+ */
+@Getter
+@ToString
+public class AgeStats {
+
+    private final long count;
+    private final long sum;
+    private final int min;
+    private final int max;
+
+    AgeStats(long count, long sum, int min, int max) {
+        this.count = count;
+        this.sum = sum;
+        this.min = count == 0 ? 0 : min;
+        this.max = count == 0 ? 0 : max;
+    }
+
+    public double getAvg() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+}
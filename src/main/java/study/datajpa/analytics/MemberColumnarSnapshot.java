@@ -0,0 +1,382 @@
+package study.datajpa.analytics;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 분석용 회원 컬럼 스냅샷.
+ * id / age / team_id 는 기본형 배열, username 은 사전(dictionary) 코드 배열로 들고 있고,
+ * 필터/집계/group by 는 행 객체 없이 배열을 순서대로 훑는 루프로 계산한다.
+ * <p>
+ * refresh 는 lastModifiedDate 가 마지막으로 본 시각 이후인 행만 읽어서 반영한다.
+ * 삭제나 감사 필드 없이 들어온 행은 lastModifiedDate 로 알 수 없으므로 건수와 id 합계가 DB 와 다르면 전체를 다시 읽는다.
+ * 스냅샷은 통째로 교체되므로 조회 중에 refresh 가 일어나도 일관된 값을 본다.
+ * 부분 반영은 행을 뒤에 붙이기만 하므로 id -> 행 번호 색인과 username 사전은 복사하지 않고 다음 스냅샷과 같이 쓴다.
+ * 둘 다 전체를 다시 읽을 때(삭제 반영) 새로 만든다.
+ * <p>
+ * 한계: lastModifiedDate 는 커밋이 아니라 flush 시각이다. 워터마크보다 이른 시각에 수정하고 refresh 뒤에 커밋한 트랜잭션은
+ * 다음 refresh 에서도 보이지 않는다. 새 행은 건수/id 합계 검사로 전체를 다시 읽으면서 잡히지만 수정은 전체를 다시 읽을 때까지 빠진다.
+ * <p>
+ * analytics.snapshot.enabled=true 일 때만 등록된다. (기본은 꺼짐, 켜면 refresh-interval 마다 DB 를 읽는다)
+ */
+@Component
+@ConditionalOnProperty(name = "analytics.snapshot.enabled", havingValue = "true")
+public class MemberColumnarSnapshot {
+
+    static final long NO_TEAM = 0;
+
+    private static final String SELECT_ROWS =
+            "select m.id, m.username, m.age, t.id, m.lastModifiedDate from Member m left join m.team t";
+
+    private final EntityManagerFactory emf;
+    private volatile Columns columns = Columns.EMPTY;
+
+    public MemberColumnarSnapshot(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.snapshot.refresh-interval:PT5S}")
+    public synchronized void refresh() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            Columns current = columns;
+            List<Object[]> changed = current.watermark == null
+                    ? em.createQuery(SELECT_ROWS, Object[].class).getResultList()
+                    : em.createQuery(SELECT_ROWS + " where m.lastModifiedDate >= :watermark", Object[].class)
+                    .setParameter("watermark", current.watermark)
+                    .getResultList();
+
+            Columns next = apply(current, changed);
+
+            Object[] checksum = em.createQuery("select count(m), coalesce(sum(m.id), 0) from Member m", Object[].class)
+                    .getSingleResult();
+            if (next.size != ((Number) checksum[0]).longValue() || next.idSum != ((Number) checksum[1]).longValue()) {
+                next = apply(Columns.EMPTY, em.createQuery(SELECT_ROWS, Object[].class).getResultList());
+            }
+            columns = next;
+        } finally {
+            em.close();
+        }
+    }
+
+    public int size() {
+        return columns.size;
+    }
+
+    public long count(int minAge, int maxAge) {
+        Columns c = columns;
+        int[] ages = c.ages;
+        long count = 0;
+        for (int i = 0; i < c.size; i++) {
+            int age = ages[i];
+            count += (age >= minAge & age <= maxAge) ? 1 : 0;
+        }
+        return count;
+    }
+
+    public AgeStats ageStats(int minAge, int maxAge) {
+        Columns c = columns;
+        int[] ages = c.ages;
+        long count = 0;
+        long sum = 0;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < c.size; i++) {
+            int age = ages[i];
+            boolean match = age >= minAge & age <= maxAge;
+            count += match ? 1 : 0;
+            sum += match ? age : 0;
+            min = Math.min(min, match ? age : Integer.MAX_VALUE);
+            max = Math.max(max, match ? age : Integer.MIN_VALUE);
+        }
+        return new AgeStats(count, sum, min, max);
+    }
+
+    public AgeStats ageStatsOfTeam(long teamId) {
+        Columns c = columns;
+        int[] ages = c.ages;
+        long[] teamIds = c.teamIds;
+        long count = 0;
+        long sum = 0;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < c.size; i++) {
+            int age = ages[i];
+            boolean match = teamIds[i] == teamId;
+            count += match ? 1 : 0;
+            sum += match ? age : 0;
+            min = Math.min(min, match ? age : Integer.MAX_VALUE);
+            max = Math.max(max, match ? age : Integer.MIN_VALUE);
+        }
+        return new AgeStats(count, sum, min, max);
+    }
+
+    /**
+     * 팀별 나이 집계 (select team_id, count, sum, min, max ... group by team_id). 팀 없음은 key null.
+     */
+    public Map<Long, AgeStats> ageStatsByTeam() {
+        Columns c = columns;
+        int groups = c.teamDictionary.length;
+        long[] counts = new long[groups];
+        long[] sums = new long[groups];
+        int[] mins = new int[groups];
+        int[] maxs = new int[groups];
+        Arrays.fill(mins, Integer.MAX_VALUE);
+        Arrays.fill(maxs, Integer.MIN_VALUE);
+
+        int[] ages = c.ages;
+        int[] teamCodes = c.teamCodes;
+        for (int i = 0; i < c.size; i++) {
+            int code = teamCodes[i];
+            int age = ages[i];
+            counts[code]++;
+            sums[code] += age;
+            mins[code] = Math.min(mins[code], age);
+            maxs[code] = Math.max(maxs[code], age);
+        }
+
+        Map<Long, AgeStats> result = new HashMap<>(groups * 2);
+        for (int code = 0; code < groups; code++) {
+            long teamId = c.teamDictionary[code];
+            result.put(teamId == NO_TEAM ? null : teamId, new AgeStats(counts[code], sums[code], mins[code], maxs[code]));
+        }
+        return result;
+    }
+
+    public long[] findIdsByUsername(String username) {
+        Columns c = columns;
+        Integer code = c.usernames.find(username);
+        if (code == null) {
+            return new long[0];
+        }
+        int[] usernameCodes = c.usernameCodes;
+        long[] ids = c.ids;
+        int found = 0;
+        long[] result = new long[4];
+        for (int i = 0; i < c.size; i++) {
+            if (usernameCodes[i] == code) {
+                if (found == result.length) {
+                    result = Arrays.copyOf(result, found * 2);
+                }
+                result[found++] = ids[i];
+            }
+        }
+        return Arrays.copyOf(result, found);
+    }
+
+    private static Columns apply(Columns base, List<Object[]> rows) {
+        ColumnsBuilder builder = new ColumnsBuilder(base, rows.size());
+        LocalDateTime watermark = base.watermark;
+        for (Object[] row : rows) {
+            Long teamId = (Long) row[3];
+            builder.upsert((Long) row[0], (String) row[1], ((Number) row[2]).intValue(), teamId != null ? teamId : NO_TEAM);
+            LocalDateTime lastModifiedDate = (LocalDateTime) row[4];
+            if (lastModifiedDate != null && (watermark == null || lastModifiedDate.isAfter(watermark))) {
+                watermark = lastModifiedDate;
+            }
+        }
+        return builder.build(watermark);
+    }
+
+    private static final class Columns {
+
+        static final Columns EMPTY = new Columns(0, new long[0], new int[0], new long[0], new int[0], new long[0],
+                new int[0], new UsernameDictionary(), new RowIndex(), null, 0);
+
+        final int size;
+        final long[] ids;
+        final int[] ages;
+        final long[] teamIds;
+        final int[] teamCodes;
+        final long[] teamDictionary;
+        final int[] usernameCodes;
+        final UsernameDictionary usernames;
+        //refresh 만 쓴다 (조회는 보지 않는다)
+        final RowIndex rowById;
+        final LocalDateTime watermark;
+        final long idSum;
+
+        Columns(int size, long[] ids, int[] ages, long[] teamIds, int[] teamCodes, long[] teamDictionary,
+                int[] usernameCodes, UsernameDictionary usernames, RowIndex rowById, LocalDateTime watermark, long idSum) {
+            this.size = size;
+            this.ids = ids;
+            this.ages = ages;
+            this.teamIds = teamIds;
+            this.teamCodes = teamCodes;
+            this.teamDictionary = teamDictionary;
+            this.usernameCodes = usernameCodes;
+            this.usernames = usernames;
+            this.rowById = rowById;
+            this.watermark = watermark;
+            this.idSum = idSum;
+        }
+    }
+
+    /**
+     * 기존 스냅샷의 컬럼 배열을 복사해서 변경을 반영한다.
+     * 빈 스냅샷에서 시작하면(전체 다시 읽기) 색인과 사전을 새로 만들고, 아니면 기존 것에 이어서 추가한다.
+     */
+    private static final class ColumnsBuilder {
+
+        private long[] ids;
+        private int[] ages;
+        private long[] teamIds;
+        private int[] usernameCodes;
+        private int size;
+        private final RowIndex rowById;
+        private final UsernameDictionary usernames;
+
+        ColumnsBuilder(Columns base, int expectedChanges) {
+            int capacity = Math.max(16, base.size + expectedChanges);
+            this.ids = Arrays.copyOf(base.ids, capacity);
+            this.ages = Arrays.copyOf(base.ages, capacity);
+            this.teamIds = Arrays.copyOf(base.teamIds, capacity);
+            this.usernameCodes = Arrays.copyOf(base.usernameCodes, capacity);
+            this.size = base.size;
+            boolean rebuild = base.size == 0;
+            this.rowById = rebuild ? new RowIndex() : base.rowById;
+            this.usernames = rebuild ? new UsernameDictionary() : base.usernames;
+        }
+
+        void upsert(long id, String username, int age, long teamId) {
+            int row = rowById.get(id);
+            // 중간에 실패한 refresh 가 남긴 항목은 base 행 범위 밖이거나 id 가 다르다
+            if (row < 0 || row >= size || ids[row] != id) {
+                row = size++;
+                rowById.put(id, row);
+                ids[row] = id;
+            }
+            ages[row] = age;
+            teamIds[row] = teamId;
+            usernameCodes[row] = usernames.codeOf(username);
+        }
+
+        Columns build(LocalDateTime watermark) {
+            Map<Long, Integer> teamIndex = new HashMap<>();
+            int[] teamCodes = new int[size];
+            long idSum = 0;
+            for (int i = 0; i < size; i++) {
+                teamCodes[i] = teamIndex.computeIfAbsent(teamIds[i], key -> teamIndex.size());
+                idSum += ids[i];
+            }
+            long[] teamDictionary = new long[teamIndex.size()];
+            teamIndex.forEach((teamId, code) -> teamDictionary[code] = teamId);
+
+            return new Columns(size, Arrays.copyOf(ids, size), Arrays.copyOf(ages, size), Arrays.copyOf(teamIds, size),
+                    teamCodes, teamDictionary, Arrays.copyOf(usernameCodes, size), usernames, rowById, watermark, idSum);
+        }
+    }
+
+    /**
+     * id -> 행 번호 (open addressing, 기본형 배열). 없으면 -1.
+     */
+    private static final class RowIndex {
+
+        private static final long EMPTY_KEY = Long.MIN_VALUE;
+
+        private long[] keys = newKeys(16);
+        private int[] rows = new int[16];
+        private int count;
+
+        int get(long id) {
+            int mask = keys.length - 1;
+            for (int slot = hash(id) & mask; ; slot = (slot + 1) & mask) {
+                long key = keys[slot];
+                if (key == id) {
+                    return rows[slot];
+                }
+                if (key == EMPTY_KEY) {
+                    return -1;
+                }
+            }
+        }
+
+        void put(long id, int row) {
+            if ((count + 1) * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+            if (insert(keys, rows, id, row)) {
+                count++;
+            }
+        }
+
+        private void resize(int capacity) {
+            long[] newKeys = newKeys(capacity);
+            int[] newRows = new int[capacity];
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != EMPTY_KEY) {
+                    insert(newKeys, newRows, keys[i], rows[i]);
+                }
+            }
+            keys = newKeys;
+            rows = newRows;
+        }
+
+        private static boolean insert(long[] keys, int[] rows, long id, int row) {
+            int mask = keys.length - 1;
+            for (int slot = hash(id) & mask; ; slot = (slot + 1) & mask) {
+                if (keys[slot] == id) {
+                    rows[slot] = row;
+                    return false;
+                }
+                if (keys[slot] == EMPTY_KEY) {
+                    keys[slot] = id;
+                    rows[slot] = row;
+                    return true;
+                }
+            }
+        }
+
+        private static long[] newKeys(int capacity) {
+            long[] keys = new long[capacity];
+            Arrays.fill(keys, EMPTY_KEY);
+            return keys;
+        }
+
+        private static int hash(long id) {
+            long h = id * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+    /**
+     * username -> 코드. 코드는 추가만 되므로 이전 스냅샷이 같이 읽어도 된다(새 코드는 이전 스냅샷의 어느 행과도 맞지 않는다).
+     * ConcurrentHashMap 은 null 키를 받지 않아서 null username 코드는 따로 둔다.
+     */
+    private static final class UsernameDictionary {
+
+        private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+        private volatile int nullCode = -1;
+        private int next;
+
+        Integer find(String username) {
+            if (username == null) {
+                return nullCode < 0 ? null : nullCode;
+            }
+            return codes.get(username);
+        }
+
+        //refresh 스레드만 부른다
+        int codeOf(String username) {
+            if (username == null) {
+                if (nullCode < 0) {
+                    nullCode = next++;
+                }
+                return nullCode;
+            }
+            Integer code = codes.get(username);
+            if (code == null) {
+                code = next++;
+                codes.put(username, code);
+            }
+            return code;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package study.datajpa.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static study.datajpa.archive.MemberSegmentWriter.*;
+
+/**
+ * 읽기 전용으로 mmap 한 세그먼트 파일 하나. 형식은 {@link MemberSegmentWriter} 참고.
+ * 절대 위치(get(index))로만 읽으므로 여러 스레드가 같은 버퍼를 동시에 읽어도 된다.
+ * <p>
+ * id 가 아닌 정렬은 처음 요청될 때 전체를 한 번 읽어 위치 배열(정렬 색인)을 만들고 세그먼트에 캐시한다.
+ * 세그먼트는 바뀌지 않으므로 색인도 다시 만들 일이 없다. 정렬 조건 MAX_SORT_INDEXES 개까지 두고 오래 안 쓴 것부터 버린다.
+ * (색인 하나에 회원당 4 바이트)
+ */
+final class ArchiveSegment {
+
+    static final int MAX_SORT_INDEXES = 8;
+
+    private final Path path;
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int idsOffset;
+    private final int offsetsOffset;
+    private final long minId;
+    private final long maxId;
+    private final Map<String, SortIndex> sortIndexes = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SortIndex> eldest) {
+            return size() > MAX_SORT_INDEXES;
+        }
+    };
+
+    private ArchiveSegment(Path path, ByteBuffer buffer, int count, int idsOffset) {
+        this.path = path;
+        this.buffer = buffer;
+        this.count = count;
+        this.idsOffset = idsOffset;
+        this.offsetsOffset = idsOffset + count * Long.BYTES;
+        this.minId = count == 0 ? Long.MAX_VALUE : idAt(0);
+        this.maxId = count == 0 ? Long.MIN_VALUE : idAt(count - 1);
+    }
+
+    static ArchiveSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < FOOTER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("세그먼트 크기가 올바르지 않습니다. path=" + path + ", size=" + size);
+            }
+            // 매핑은 채널을 닫아도 유지된다
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int footer = (int) size - FOOTER_BYTES;
+            long idsOffset = buffer.getLong(footer);
+            int count = buffer.getInt(footer + 8);
+            if (buffer.getInt(footer + 12) != MAGIC
+                    || idsOffset < 0 || idsOffset + (long) count * (Long.BYTES + Integer.BYTES) != footer) {
+                throw new IOException("세그먼트 형식이 아닙니다. path=" + path);
+            }
+            return new ArchiveSegment(path, buffer, count, (int) idsOffset);
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    int count() {
+        return count;
+    }
+
+    long idAt(int position) {
+        return buffer.getLong(idsOffset + position * Long.BYTES);
+    }
+
+    /**
+     * 정렬된 id 인덱스를 이진 탐색한다. 없으면 -1.
+     */
+    int indexOf(long id) {
+        if (id < minId || id > maxId) {
+            return -1;
+        }
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = idAt(mid);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * id 가 afterId 보다 큰 첫 위치 (없으면 count)
+     */
+    int firstAfter(long afterId) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (idAt(mid) <= afterId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    int ageAt(int position) {
+        return buffer.getInt(recordOffset(position));
+    }
+
+    /**
+     * 팀이 없으면 NO_TEAM
+     */
+    long teamIdAt(int position) {
+        return buffer.getLong(recordOffset(position) + 4);
+    }
+
+    /**
+     * 문자열을 만들지 않고 UTF-8 바이트로 비교한다.
+     */
+    boolean usernameEquals(int position, byte[] username) {
+        int offset = recordOffset(position);
+        int length = buffer.getShort(offset + 28) & 0xFFFF;
+        if (length != username.length) {
+            return false;
+        }
+        int start = offset + RECORD_HEADER_BYTES;
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(start + i) != username[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * order 순서로 정렬한 위치 배열. teamName 정렬이면 팀 id 별 run 으로 나눠 둔다({@link MemberOrder#comparator(boolean)}).
+     */
+    SortIndex sortIndex(MemberOrder order) {
+        String key = order.indexKey();
+        synchronized (sortIndexes) {
+            SortIndex index = sortIndexes.get(key);
+            if (index != null) {
+                return index;
+            }
+        }
+        SortIndex built = buildSortIndex(order);
+        synchronized (sortIndexes) {
+            return sortIndexes.computeIfAbsent(key, k -> built);
+        }
+    }
+
+    private SortIndex buildSortIndex(MemberOrder order) {
+        boolean groupByTeam = order.usesTeamName();
+        TieredRow[] rows = new TieredRow[count];
+        Integer[] sorted = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            rows[i] = TieredRow.cold(read(i), null);
+            sorted[i] = i;
+        }
+        Comparator<TieredRow> comparator = order.comparator(groupByTeam);
+        Arrays.sort(sorted, (left, right) -> comparator.compare(rows[left], rows[right]));
+
+        int[] positions = new int[count];
+        List<Integer> runStarts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            positions[i] = sorted[i];
+            if (i == 0 || (groupByTeam && teamIdAt(positions[i]) != teamIdAt(positions[i - 1]))) {
+                runStarts.add(i);
+            }
+        }
+        runStarts.add(count);
+        return new SortIndex(positions, runStarts.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    ArchivedMember read(int position) {
+        int offset = recordOffset(position);
+        int age = buffer.getInt(offset);
+        long teamId = buffer.getLong(offset + 4);
+        long createdDate = buffer.getLong(offset + 12);
+        long lastModifiedDate = buffer.getLong(offset + 20);
+        int length = buffer.getShort(offset + 28) & 0xFFFF;
+        String username = null;
+        if (length != NULL_USERNAME) {
+            byte[] bytes = new byte[length];
+            buffer.get(offset + RECORD_HEADER_BYTES, bytes);
+            username = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return new ArchivedMember(idAt(position), username, age, teamId == NO_TEAM ? null : teamId,
+                time(createdDate), time(lastModifiedDate));
+    }
+
+    private int recordOffset(int position) {
+        return buffer.getInt(offsetsOffset + position * Integer.BYTES);
+    }
+
+    /**
+     * positions[runStarts[r] .. runStarts[r + 1]) 가 run r 이다. run 안은 정렬 순서 그대로다.
+     */
+    static final class SortIndex {
+
+        final int[] positions;
+        final int[] runStarts;
+
+        SortIndex(int[] positions, int[] runStarts) {
+            this.positions = positions;
+            this.runStarts = runStarts;
+        }
+
+        int runs() {
+            return runStarts.length - 1;
+        }
+    }
+}
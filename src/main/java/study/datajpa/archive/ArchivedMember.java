@@ -0,0 +1,26 @@
+package study.datajpa.archive;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import study.datajpa.dto.MemberRow;
+
+import java.time.LocalDateTime;
+
+/**
+ * 아카이브 세그먼트에서 읽은 회원 한 건
+ */
+@Getter
+@AllArgsConstructor
+public class ArchivedMember {
+
+    private final Long id;
+    private final String username;
+    private final int age;
+    private final Long teamId;
+    private final LocalDateTime createdDate;
+    private final LocalDateTime lastModifiedDate;
+
+    public MemberRow toRow() {
+        return new MemberRow(id, username, age, teamId);
+    }
+}
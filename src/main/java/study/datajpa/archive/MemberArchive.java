@@ -0,0 +1,279 @@
+package study.datajpa.archive;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * 오래된 회원을 옮겨 둔 불변 세그먼트 파일들 (cold tier).
+ * 기동할 때 디렉터리의 세그먼트를 모두 mmap 하고, 아카이브가 새로 만든 세그먼트는 register 로 붙인다.
+ * <p>
+ * DB 를 ddl-auto: create 로 다시 만들어도 세그먼트는 남으므로 archive.dir 은 DB 파일과 수명을 맞춰서 지정한다.
+ */
+@Component
+public class MemberArchive {
+
+    static final String SEGMENT_SUFFIX = ".seg";
+    static final String TEMP_SUFFIX = ".tmp";
+    private static final MemberOrder BY_USERNAME = MemberOrder.of(Sort.by("username"));
+
+    private final Path directory;
+    private final List<ArchiveSegment> segments = new CopyOnWriteArrayList<>();
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    public MemberArchive(@Value("${archive.dir:./build/archive}") Path directory) {
+        this.directory = directory;
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.sorted().toList()) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    // 쓰다가 멈춘 파일
+                    Files.deleteIfExists(path);
+                } else if (name.endsWith(SEGMENT_SUFFIX)) {
+                    segments.add(ArchiveSegment.open(path));
+                }
+            }
+        }
+    }
+
+    /**
+     * 이름 순서가 만든 순서와 같도록 시각 + 일련번호로 짓는다.
+     */
+    Path newSegmentPath() {
+        return directory.resolve(String.format("members-%013d-%04d%s",
+                System.currentTimeMillis(), sequence.incrementAndGet() % 10_000, SEGMENT_SUFFIX));
+    }
+
+    void register(List<Path> paths) throws IOException {
+        List<ArchiveSegment> opened = new ArrayList<>();
+        for (Path path : paths) {
+            opened.add(ArchiveSegment.open(path));
+        }
+        segments.addAll(opened);
+    }
+
+    void unregister(List<Path> paths) {
+        segments.removeIf(segment -> paths.contains(segment.path()));
+    }
+
+    public boolean isEmpty() {
+        return count() == 0;
+    }
+
+    public long count() {
+        long count = 0;
+        for (ArchiveSegment segment : segments) {
+            count += segment.count();
+        }
+        return count;
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    public Optional<ArchivedMember> findById(long id) {
+        for (ArchiveSegment segment : segments) {
+            int position = segment.indexOf(id);
+            if (position >= 0) {
+                return Optional.of(segment.read(position));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * order 순서로 filter 에 맞는 앞쪽 limit 건.
+     * 세그먼트마다 정렬된 run(id 정렬은 세그먼트 자체, 그 밖은 세그먼트의 정렬 색인)을 k-way 병합하므로
+     * 회원 객체는 병합 머리에 오는 행만 만든다. 조건에 맞지 않는 행은 버퍼에서 필요한 필드만 읽고 건너뛴다.
+     * username 조건이 있으면 username 색인에서 같은 값 구간만 읽는다.
+     *
+     * @param teamNames 팀 id -> 이름. teamName 정렬일 때만 부른다
+     */
+    List<TieredRow> findTop(MemberOrder order, MemberFilter filter, int limit,
+                            Function<Collection<Long>, Map<Long, String>> teamNames) {
+        List<ArchiveSegment> current = List.copyOf(segments);
+        if (limit <= 0 || current.isEmpty()) {
+            return List.of();
+        }
+        if (filter.username() != null) {
+            List<TieredRow> rows = usernameMatches(current, filter, order.usesTeamName() ? teamNames : null);
+            rows.sort(order.comparator());
+            return rows.size() > limit ? rows.subList(0, limit) : rows;
+        }
+
+        List<RunCursor> runs = new ArrayList<>();
+        Boolean idOnly = order.idOnly();
+        for (ArchiveSegment segment : current) {
+            if (idOnly != null) {
+                int from = filter.idGt() != null ? segment.firstAfter(filter.idGt()) : 0;
+                runs.add(new RunCursor(segment, null, from, segment.count(), idOnly));
+            } else {
+                ArchiveSegment.SortIndex index = segment.sortIndex(order);
+                for (int r = 0; r < index.runs(); r++) {
+                    runs.add(new RunCursor(segment, index.positions, index.runStarts[r], index.runStarts[r + 1], true));
+                }
+            }
+        }
+        Map<Long, String> names = Map.of();
+        if (order.usesTeamName()) {
+            Set<Long> teamIds = new HashSet<>();
+            for (RunCursor run : runs) {
+                if (run.from < run.to) {
+                    run.teamId().ifPresent(teamIds::add);
+                }
+            }
+            names = teamNames.apply(teamIds);
+        }
+
+        Comparator<TieredRow> comparator = order.comparator();
+        PriorityQueue<RunCursor> heads = new PriorityQueue<>((left, right) -> comparator.compare(left.head, right.head));
+        for (RunCursor run : runs) {
+            if (run.advance(filter, names)) {
+                heads.add(run);
+            }
+        }
+        List<TieredRow> rows = new ArrayList<>(Math.min(limit, 1024));
+        while (!heads.isEmpty() && rows.size() < limit) {
+            RunCursor head = heads.poll();
+            rows.add(head.head);
+            if (head.advance(filter, names)) {
+                heads.add(head);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * filter 에 맞는 건수. username 조건이 있으면 username 색인 구간만, 아니면 전체를 필드 단위로 훑는다(객체는 만들지 않는다).
+     */
+    long count(MemberFilter filter) {
+        if (filter.isEmpty()) {
+            return count();
+        }
+        List<ArchiveSegment> current = List.copyOf(segments);
+        if (filter.username() != null) {
+            return usernameMatches(current, filter, null).size();
+        }
+        long count = 0;
+        for (ArchiveSegment segment : current) {
+            int from = filter.idGt() != null ? segment.firstAfter(filter.idGt()) : 0;
+            for (int i = from; i < segment.count(); i++) {
+                if (filter.matches(segment, i)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static List<TieredRow> usernameMatches(List<ArchiveSegment> segments, MemberFilter filter,
+                                                   Function<Collection<Long>, Map<Long, String>> teamNames) {
+        String username = filter.username();
+        List<ArchivedMember> matched = new ArrayList<>();
+        for (ArchiveSegment segment : segments) {
+            int[] positions = segment.sortIndex(BY_USERNAME).positions;
+            // username 색인에서 username 이상인 첫 위치
+            int low = 0;
+            int high = positions.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                String value = segment.read(positions[mid]).getUsername();
+                if (value == null || value.compareTo(username) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            for (int i = low; i < positions.length; i++) {
+                ArchivedMember member = segment.read(positions[i]);
+                if (!username.equals(member.getUsername())) {
+                    break;
+                }
+                if (filter.matches(segment, positions[i])) {
+                    matched.add(member);
+                }
+            }
+        }
+        Map<Long, String> names = Map.of();
+        if (teamNames != null) {
+            Set<Long> teamIds = new HashSet<>();
+            matched.forEach(member -> {
+                if (member.getTeamId() != null) {
+                    teamIds.add(member.getTeamId());
+                }
+            });
+            names = teamNames.apply(teamIds);
+        }
+        List<TieredRow> rows = new ArrayList<>(matched.size());
+        for (ArchivedMember member : matched) {
+            rows.add(TieredRow.cold(member, member.getTeamId() != null ? names.get(member.getTeamId()) : null));
+        }
+        return rows;
+    }
+
+    /**
+     * 한 세그먼트 안의 정렬된 구간 [from, to). positions 가 null 이면 세그먼트 위치(id 순) 그대로다.
+     */
+    private static final class RunCursor {
+        private final ArchiveSegment segment;
+        private final int[] positions;
+        private final int from;
+        private final int to;
+        private final boolean forward;
+        private int next;
+        private TieredRow head;
+
+        RunCursor(ArchiveSegment segment, int[] positions, int from, int to, boolean forward) {
+            this.segment = segment;
+            this.positions = positions;
+            this.from = from;
+            this.to = to;
+            this.forward = forward;
+            this.next = forward ? from : to - 1;
+        }
+
+        /**
+         * run 의 팀 id (teamName 정렬 run 은 팀이 하나다)
+         */
+        Optional<Long> teamId() {
+            long teamId = segment.teamIdAt(position(from));
+            return teamId == MemberSegmentWriter.NO_TEAM ? Optional.empty() : Optional.of(teamId);
+        }
+
+        /**
+         * filter 에 맞는 다음 행을 head 에 둔다. 없으면 false.
+         */
+        boolean advance(MemberFilter filter, Map<Long, String> teamNames) {
+            while (next >= from && next < to) {
+                int position = position(next);
+                next += forward ? 1 : -1;
+                if (filter.matches(segment, position)) {
+                    ArchivedMember member = segment.read(position);
+                    head = TieredRow.cold(member, member.getTeamId() != null ? teamNames.get(member.getTeamId()) : null);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int position(int index) {
+            return positions == null ? index : positions[index];
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package study.datajpa.archive;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * createdDate 가 기준 시각보다 오래된 회원을 세그먼트 파일로 옮기고 member 테이블에서 지운다.
+ * <p>
+ * 한 트랜잭션 안에서 id 순으로 chunk 씩 읽어 임시 파일에 쓰고, 읽은 행을 바로 지운다.
+ * 지울 때는 id 와 읽은 lastModifiedDate 가 모두 같은 행만 지우고, 한 건이라도 못 지우면(그 사이 수정/삭제됨) 전체를 롤백한다.
+ * 잠금 없이 읽은 뒤 다른 트랜잭션이 고친 값이 아카이브의 옛 값으로 덮이지 않게 하기 위해서다.
+ * (lastModifiedDate 를 바꾸지 않는 JDBC 직접 수정은 알아채지 못한다)
+ * 모두 지워지면 파일 이름을 바꿔 붙인다.
+ * 세그먼트는 커밋 전에 붙이므로 커밋 직전 잠깐은 같은 회원이 양쪽에 보일 수 있고 (조회는 hot 이 먼저, 목록은 id 로 중복 제거),
+ * 롤백되면 떼어내고 파일을 지운다.
+ * <p>
+ * member 테이블에서는 벌크 JPQL delete 로 지우므로 엔티티 이벤트 리스너(MemberResponseCacheListener, MemberTombstoneListener)가 불리지 않는다.
+ * 옮긴 회원은 아카이브에서 같은 값으로 조회되므로 응답 캐시는 그대로 두고, 변경 피드에도 삭제(tombstone)로 남기지 않는다.
+ */
+@Component
+public class MemberArchiver {
+
+    private static final String SELECT_ROWS =
+            "select m.id, m.username, m.age, t.id, m.createdDate, m.lastModifiedDate from Member m left join m.team t" +
+                    " where m.createdDate < :threshold and m.id > :lastId order by m.id";
+
+    private final EntityManager em;
+    private final MemberArchive archive;
+    private final TransactionTemplate tx;
+    private final Duration olderThan;
+    private final int chunkSize;
+    private final int segmentMaxRecords;
+
+    public MemberArchiver(EntityManager em, MemberArchive archive, PlatformTransactionManager transactionManager,
+                          @Value("${archive.older-than:P365D}") Duration olderThan,
+                          @Value("${archive.chunk-size:1000}") int chunkSize,
+                          @Value("${archive.segment-max-records:1000000}") int segmentMaxRecords) {
+        this.em = em;
+        this.archive = archive;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.olderThan = olderThan;
+        this.chunkSize = chunkSize;
+        this.segmentMaxRecords = segmentMaxRecords;
+    }
+
+    // archive.cron 을 지정하지 않으면("-") 돌지 않는다
+    @Scheduled(cron = "${archive.cron:-}")
+    public void archiveExpired() {
+        archive(LocalDateTime.now().minus(olderThan));
+    }
+
+    /**
+     * @return 옮긴 회원 수
+     */
+    public synchronized long archive(LocalDateTime threshold) {
+        List<Path> temps = new ArrayList<>();
+        try {
+            return tx.execute(status -> {
+                Written written = writeSegments(threshold, temps);
+                long archived = written.count;
+                if (archived == 0) {
+                    return 0L;
+                }
+
+                List<Path> segments = publish(temps);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int completionStatus) {
+                        if (completionStatus != STATUS_COMMITTED) {
+                            archive.unregister(segments);
+                            segments.forEach(MemberArchiver::deleteQuietly);
+                        }
+                    }
+                });
+                return archived;
+            });
+        } finally {
+            temps.forEach(MemberArchiver::deleteQuietly);
+        }
+    }
+
+    private Written writeSegments(LocalDateTime threshold, List<Path> temps) {
+        Written written = new Written();
+        MemberSegmentWriter writer = null;
+        try {
+            while (true) {
+                List<Object[]> rows = em.createQuery(SELECT_ROWS, Object[].class)
+                        .setParameter("threshold", threshold)
+                        .setParameter("lastId", written.lastId)
+                        .setMaxResults(chunkSize)
+                        .getResultList();
+                if (rows.isEmpty()) {
+                    break;
+                }
+                deleteUnchanged(rows);
+                for (Object[] row : rows) {
+                    if (writer == null) {
+                        Path temp = Path.of(archive.newSegmentPath() + MemberArchive.TEMP_SUFFIX);
+                        temps.add(temp);
+                        writer = new MemberSegmentWriter(temp);
+                    }
+                    written.lastId = (Long) row[0];
+                    written.count++;
+                    writer.append(written.lastId, (String) row[1], (Integer) row[2], (Long) row[3],
+                            (LocalDateTime) row[4], (LocalDateTime) row[5]);
+                    if (writer.count() >= segmentMaxRecords) {
+                        writer.finish();
+                        writer = null;
+                    }
+                }
+            }
+            if (writer != null) {
+                writer.finish();
+                writer = null;
+            }
+            return written;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * 읽은 행을 (id, lastModifiedDate) 로 정확히 지운다. 지운 건수가 다르면 예외(롤백).
+     */
+    private void deleteUnchanged(List<Object[]> rows) {
+        em.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "delete from member where member_id = ? and last_modified_date is not distinct from ?")) {
+                for (Object[] row : rows) {
+                    statement.setLong(1, (Long) row[0]);
+                    LocalDateTime lastModifiedDate = (LocalDateTime) row[5];
+                    if (lastModifiedDate == null) {
+                        statement.setNull(2, Types.TIMESTAMP);
+                    } else {
+                        statement.setTimestamp(2, Timestamp.valueOf(lastModifiedDate));
+                    }
+                    statement.addBatch();
+                }
+                int deleted = 0;
+                for (int count : statement.executeBatch()) {
+                    deleted += count;
+                }
+                if (deleted != rows.size()) {
+                    throw new IllegalStateException("읽은 뒤에 바뀐 회원이 있어 아카이브를 취소합니다. read=" + rows.size() + ", deleted=" + deleted);
+                }
+            }
+        });
+    }
+
+    private List<Path> publish(List<Path> temps) {
+        List<Path> segments = new ArrayList<>();
+        try {
+            for (Path temp : temps) {
+                String name = temp.getFileName().toString();
+                Path segment = temp.resolveSibling(name.substring(0, name.length() - MemberArchive.TEMP_SUFFIX.length()));
+                Files.move(temp, segment, StandardCopyOption.ATOMIC_MOVE);
+                segments.add(segment);
+            }
+            archive.register(segments);
+            return segments;
+        } catch (IOException e) {
+            segments.forEach(MemberArchiver::deleteQuietly);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static final class Written {
+        private long lastId;
+        private long count;
+    }
+}
@@ -0,0 +1,113 @@
+package study.datajpa.archive;
+
+import jakarta.persistence.Query;
+import org.springframework.util.StringUtils;
+import study.datajpa.dto.MemberSearchCondition;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+/**
+ * /members/search 조건(+ cursor 의 id >)을 hot 은 JPQL where 로, cold 는 세그먼트 값 비교로 적용한다.
+ * 세그먼트 쪽은 회원 객체를 만들지 않고 필요한 필드만 버퍼에서 읽는다.
+ * 팀 이름 조건은 팀 id 로 바꿔서 비교한다 (팀 이름은 아카이브에 없다).
+ */
+final class MemberFilter {
+
+    static final MemberFilter NONE = new MemberFilter(null, null, null, null, null, null);
+
+    private final String username;
+    private final byte[] usernameBytes;
+    private final String teamName;
+    //teamName 이 있을 때만 의미가 있다. 없는 팀이면 null (cold 는 아무것도 맞지 않는다)
+    private final Long teamId;
+    private final Integer ageGoe;
+    private final Integer ageLoe;
+    private final Long idGt;
+
+    private MemberFilter(String username, String teamName, Long teamId, Integer ageGoe, Integer ageLoe, Long idGt) {
+        this.username = username;
+        this.usernameBytes = username != null ? username.getBytes(StandardCharsets.UTF_8) : null;
+        this.teamName = teamName;
+        this.teamId = teamId;
+        this.ageGoe = ageGoe;
+        this.ageLoe = ageLoe;
+        this.idGt = idGt;
+    }
+
+    static MemberFilter of(MemberSearchCondition condition, Long idGt, Function<String, Optional<Long>> teamIdByName) {
+        String username = StringUtils.hasText(condition.getUsername()) ? condition.getUsername() : null;
+        String teamName = StringUtils.hasText(condition.getTeamName()) ? condition.getTeamName() : null;
+        Long teamId = teamName != null ? teamIdByName.apply(teamName).orElse(null) : null;
+        return new MemberFilter(username, teamName, teamId, condition.getAgeGoe(), condition.getAgeLoe(), idGt);
+    }
+
+    boolean isEmpty() {
+        return username == null && teamName == null && ageGoe == null && ageLoe == null && idGt == null;
+    }
+
+    String username() {
+        return username;
+    }
+
+    Long idGt() {
+        return idGt;
+    }
+
+    String where() {
+        StringJoiner where = new StringJoiner(" and ", " where ", "").setEmptyValue("");
+        if (username != null) {
+            where.add("m.username = :username");
+        }
+        if (teamName != null) {
+            where.add("t.name = :teamName");
+        }
+        if (ageGoe != null) {
+            where.add("m.age >= :ageGoe");
+        }
+        if (ageLoe != null) {
+            where.add("m.age <= :ageLoe");
+        }
+        if (idGt != null) {
+            where.add("m.id > :idGt");
+        }
+        return where.toString();
+    }
+
+    <Q extends Query> Q bind(Q query) {
+        if (username != null) {
+            query.setParameter("username", username);
+        }
+        if (teamName != null) {
+            query.setParameter("teamName", teamName);
+        }
+        if (ageGoe != null) {
+            query.setParameter("ageGoe", ageGoe);
+        }
+        if (ageLoe != null) {
+            query.setParameter("ageLoe", ageLoe);
+        }
+        if (idGt != null) {
+            query.setParameter("idGt", idGt);
+        }
+        return query;
+    }
+
+    boolean matches(ArchiveSegment segment, int position) {
+        if (idGt != null && segment.idAt(position) <= idGt) {
+            return false;
+        }
+        if (teamName != null && (teamId == null || segment.teamIdAt(position) != teamId)) {
+            return false;
+        }
+        if (ageGoe != null || ageLoe != null) {
+            int age = segment.ageAt(position);
+            if ((ageGoe != null && age < ageGoe) || (ageLoe != null && age > ageLoe)) {
+                return false;
+            }
+        }
+        return usernameBytes == null || segment.usernameEquals(position, usernameBytes);
+    }
+}
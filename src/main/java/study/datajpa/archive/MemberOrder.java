@@ -0,0 +1,141 @@
+package study.datajpa.archive;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+/**
+ * hot / cold 목록에 같이 쓰는 정렬 조건. id 가 없으면 id asc 를 마지막에 붙인다(페이지 사이에서 순서 고정).
+ * null 은 H2 처럼 가장 작은 값으로 본다 (asc: 앞, desc: 뒤).
+ * <p>
+ * createdBy / lastModifiedBy 는 아카이브에 없으므로 아카이브된 회원은 null 로 정렬된다.
+ */
+final class MemberOrder {
+
+    enum Key {
+        ID("m.id", TieredRow::getId, "id"),
+        USERNAME("m.username", TieredRow::getUsername, "username"),
+        AGE("m.age", TieredRow::getAge, "age"),
+        TEAM_ID("t.id", TieredRow::getTeamId, "teamId", "team.id", "team"),
+        TEAM_NAME("t.name", TieredRow::getTeamName, "teamName", "team.name"),
+        CREATED_DATE("m.createdDate", TieredRow::getCreatedDate, "createdDate"),
+        LAST_MODIFIED_DATE("m.lastModifiedDate", TieredRow::getLastModifiedDate, "lastModifiedDate"),
+        CREATED_BY("m.createdBy", TieredRow::getCreatedBy, "createdBy"),
+        LAST_MODIFIED_BY("m.lastModifiedBy", TieredRow::getLastModifiedBy, "lastModifiedBy");
+
+        private final String path;
+        private final Function<TieredRow, Comparable<?>> value;
+        private final String[] properties;
+
+        Key(String path, Function<TieredRow, Comparable<?>> value, String... properties) {
+            this.path = path;
+            this.value = value;
+            this.properties = properties;
+        }
+
+        static Key of(String property) {
+            for (Key key : values()) {
+                for (String name : key.properties) {
+                    if (name.equals(property)) {
+                        return key;
+                    }
+                }
+            }
+            throw new IllegalArgumentException("정렬할 수 없는 속성입니다. property=" + property);
+        }
+    }
+
+    static final MemberOrder BY_ID = of(Sort.unsorted());
+
+    private final List<Key> keys;
+    private final List<Boolean> ascending;
+
+    private MemberOrder(List<Key> keys, List<Boolean> ascending) {
+        this.keys = keys;
+        this.ascending = ascending;
+    }
+
+    /**
+     * @throws IllegalArgumentException 정렬할 수 없는 속성
+     */
+    static MemberOrder of(Sort sort) {
+        List<Key> keys = new ArrayList<>();
+        List<Boolean> ascending = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            Key key = Key.of(order.getProperty());
+            if (!keys.contains(key)) {
+                keys.add(key);
+                ascending.add(order.isAscending());
+            }
+        }
+        if (!keys.contains(Key.ID)) {
+            keys.add(Key.ID);
+            ascending.add(true);
+        }
+        return new MemberOrder(List.copyOf(keys), List.copyOf(ascending));
+    }
+
+    /**
+     * id 하나로만 정렬하면 asc / desc, 아니면 null. (세그먼트는 이미 id 순이라 색인이 필요 없다)
+     */
+    Boolean idOnly() {
+        return keys.size() == 1 ? ascending.get(0) : null;
+    }
+
+    boolean usesTeamName() {
+        return keys.contains(Key.TEAM_NAME);
+    }
+
+    String orderBy() {
+        StringJoiner orderBy = new StringJoiner(", ", " order by ", "");
+        for (int i = 0; i < keys.size(); i++) {
+            orderBy.add(keys.get(i).path + (ascending.get(i) ? " asc" : " desc"));
+        }
+        return orderBy.toString();
+    }
+
+    Comparator<TieredRow> comparator() {
+        return comparator(false);
+    }
+
+    /**
+     * 세그먼트 색인용 비교자. 팀 이름은 아카이브 밖(team 테이블)에 있고 바뀔 수 있으므로
+     * teamName 정렬은 팀 id 로 먼저 묶고(run) 나머지 키로 정렬한다. run 안에서는 팀 이름이 같으므로 전체 순서와 같다.
+     */
+    Comparator<TieredRow> comparator(boolean groupByTeam) {
+        Comparator<TieredRow> comparator = groupByTeam ? nullsFirst(TieredRow::getTeamId) : null;
+        for (int i = 0; i < keys.size(); i++) {
+            Key key = keys.get(i);
+            if (groupByTeam && key == Key.TEAM_NAME) {
+                continue;
+            }
+            Comparator<TieredRow> next = nullsFirst(key.value);
+            if (!ascending.get(i)) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator;
+    }
+
+    /**
+     * 세그먼트 색인 캐시 key
+     */
+    String indexKey() {
+        StringJoiner key = new StringJoiner(",");
+        for (int i = 0; i < keys.size(); i++) {
+            key.add(keys.get(i).name() + (ascending.get(i) ? "+" : "-"));
+        }
+        return key.toString();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<TieredRow> nullsFirst(Function<TieredRow, ? extends Comparable<?>> value) {
+        Comparator<Comparable> natural = Comparator.nullsFirst(Comparator.naturalOrder());
+        return (left, right) -> natural.compare(value.apply(left), value.apply(right));
+    }
+}
@@ -0,0 +1,127 @@
+package study.datajpa.archive;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * 회원 세그먼트 파일을 한 번에 순서대로 쓴다. 쓰고 나면 다시 고치지 않는다.
+ * <pre>
+ * [record]*          age(4) teamId(8) createdDate(8) lastModifiedDate(8) usernameLength(2) username(UTF-8)
+ * [id]*count         오름차순 id (8)
+ * [offset]*count     id 와 같은 순서의 record 시작 위치 (4)
+ * footer             idsOffset(8) count(4) magic(4)
+ * </pre>
+ * 시각은 UTC 기준 epoch 마이크로초, 팀이 없으면 teamId 는 0, username 이 null 이면 길이는 0xFFFF 로 쓴다.
+ */
+final class MemberSegmentWriter implements Closeable {
+
+    static final int MAGIC = 0x4D454D53;
+    static final int FOOTER_BYTES = 16;
+    static final int RECORD_HEADER_BYTES = 30;
+    static final long NO_TEAM = 0;
+    static final long NO_TIME = Long.MIN_VALUE;
+    static final int NULL_USERNAME = 0xFFFF;
+
+    private final Path path;
+    private final DataOutputStream out;
+    private long[] ids = new long[1024];
+    private int[] offsets = new int[1024];
+    private int count;
+    private boolean finished;
+
+    MemberSegmentWriter(Path path) throws IOException {
+        this.path = path;
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+    }
+
+    void append(long id, String username, int age, Long teamId, LocalDateTime createdDate, LocalDateTime lastModifiedDate) throws IOException {
+        if (count > 0 && id <= ids[count - 1]) {
+            throw new IllegalArgumentException("id 오름차순으로 써야 합니다. id=" + id);
+        }
+        if (count == ids.length) {
+            ids = Arrays.copyOf(ids, count * 2);
+            offsets = Arrays.copyOf(offsets, count * 2);
+        }
+        int offset = out.size();
+        if (offset < 0 || offset > Integer.MAX_VALUE - (1 << 20)) {
+            throw new IllegalStateException("세그먼트가 너무 큽니다. archive.segment-max-records 를 줄이세요.");
+        }
+        ids[count] = id;
+        offsets[count] = offset;
+        count++;
+
+        out.writeInt(age);
+        out.writeLong(teamId == null ? NO_TEAM : teamId);
+        out.writeLong(micros(createdDate));
+        out.writeLong(micros(lastModifiedDate));
+        if (username == null) {
+            out.writeShort(NULL_USERNAME);
+        } else {
+            byte[] bytes = username.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length >= NULL_USERNAME) {
+                throw new IllegalArgumentException("username 이 너무 깁니다. id=" + id);
+            }
+            out.writeShort(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    int count() {
+        return count;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    /**
+     * 인덱스와 footer 를 쓰고 디스크에 내린다.
+     */
+    Path finish() throws IOException {
+        long idsOffset = out.size();
+        for (int i = 0; i < count; i++) {
+            out.writeLong(ids[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            out.writeInt(offsets[i]);
+        }
+        out.writeLong(idsOffset);
+        out.writeInt(count);
+        out.writeInt(MAGIC);
+        out.close();
+        finished = true;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        return path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!finished) {
+            out.close();
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private static long micros(LocalDateTime time) {
+        if (time == null) {
+            return NO_TIME;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    static LocalDateTime time(long micros) {
+        if (micros == NO_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,214 @@
+package study.datajpa.archive;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.*;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberFieldRow;
+import study.datajpa.dto.MemberSearchCondition;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberField;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.*;
+
+/**
+ * member 테이블(hot)을 먼저 보고 없으면 아카이브(cold)를 본다.
+ * 아카이브가 비어 있으면 기존 조회와 같은 쿼리만 나간다.
+ * <p>
+ * 목록(/members, ?fields=, /members/search, /members/search/cursor)은 hot / cold 에서 각각 정렬된 앞쪽 offset + size 건을
+ * 가져와서 병합한 뒤 페이지를 자른다. 정렬 속성은 {@link MemberOrder} 참고 (id, username, age, teamId, teamName,
+ * createdDate, lastModifiedDate, createdBy, lastModifiedBy 와 team.id, team.name 같은 경로).
+ * 페이지가 깊을수록 양쪽에서 읽는 건수가 늘어나므로 offset + size 가 archive.max-page-offset 을 넘으면 거절한다.
+ * <p>
+ * 아카이브 세그먼트는 옮기는 트랜잭션의 커밋 전에 붙으므로 커밋 직전 잠깐은 같은 회원이 양쪽에 있을 수 있다.
+ * 단건 조회는 hot 이 먼저고, 목록은 병합할 때 hot 에 있는 id 를 cold 에서 뺀다. (전체 건수는 그 사이 겹칠 수 있다)
+ * <p>
+ * 조회는 읽기 전용 트랜잭션으로 끝나고 커넥션은 커밋 때 반납된다. 응답 직렬화는 커넥션 없이 한다.
+ */
+@Component
+@Transactional(readOnly = true)
+public class TieredMemberReader {
+
+    private final EntityManager em;
+    private final MemberRepository memberRepository;
+    private final TeamRepository teamRepository;
+    private final MemberArchive archive;
+    private final long maxPageOffset;
+
+    public TieredMemberReader(EntityManager em, MemberRepository memberRepository, TeamRepository teamRepository, MemberArchive archive,
+                              @Value("${archive.max-page-offset:10000}") long maxPageOffset) {
+        this.em = em;
+        this.memberRepository = memberRepository;
+        this.teamRepository = teamRepository;
+        this.archive = archive;
+        this.maxPageOffset = maxPageOffset;
+    }
+
+    public Optional<MemberDto> findById(Long id) {
+        Optional<MemberDto> hot = memberRepository.findMemberDtoById(id);
+        if (hot.isPresent() || archive.isEmpty()) {
+            return hot;
+        }
+        return archive.findById(id)
+                .map(member -> new MemberDto(member.getId(), member.getUsername(), teamName(member.getTeamId())));
+    }
+
+    /**
+     * @throws IllegalArgumentException 정렬할 수 없는 속성이거나 페이지가 너무 깊을 때
+     */
+    public Page<MemberDto> findAll(Pageable pageable) {
+        if (archive.isEmpty()) {
+            return memberRepository.findAll(pageable).map(MemberDto::new);
+        }
+        List<TieredRow> rows = page(MemberOrder.of(pageable.getSort()), MemberFilter.NONE, pageable);
+        // 기존 목록 응답(MemberDto(Member))처럼 teamName 은 채우지 않는다
+        List<MemberDto> content = rows.stream().map(row -> new MemberDto(row.getId(), row.getUsername(), null)).toList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> memberRepository.count() + archive.count());
+    }
+
+    /**
+     * @throws IllegalArgumentException 정렬할 수 없는 속성이거나 페이지가 너무 깊을 때
+     */
+    public Page<MemberDto> search(MemberSearchCondition condition, Pageable pageable) {
+        if (archive.isEmpty()) {
+            return memberRepository.search(condition, pageable);
+        }
+        MemberFilter filter = MemberFilter.of(condition, null, teamRepository::findIdByName);
+        List<TieredRow> rows = withTeamNames(page(MemberOrder.of(pageable.getSort()), filter, pageable));
+        List<MemberDto> content = rows.stream().map(row -> new MemberDto(row.getId(), row.getUsername(), row.getTeamName())).toList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> countHot(filter) + archive.count(filter));
+    }
+
+    public Slice<MemberDto> searchByCursor(MemberSearchCondition condition, Long lastMemberId, int size) {
+        if (archive.isEmpty()) {
+            return memberRepository.searchByCursor(condition, lastMemberId, size);
+        }
+        MemberFilter filter = MemberFilter.of(condition, lastMemberId, teamRepository::findIdByName);
+        List<TieredRow> rows = withTeamNames(top(MemberOrder.BY_ID, filter, size + 1L));
+        boolean hasNext = rows.size() > size;
+        List<MemberDto> content = rows.stream()
+                .limit(size)
+                .map(row -> new MemberDto(row.getId(), row.getUsername(), row.getTeamName()))
+                .toList();
+        return new SliceImpl<>(content, PageRequest.of(0, size), hasNext);
+    }
+
+    /**
+     * @throws IllegalArgumentException 정렬할 수 없는 속성이거나 페이지가 너무 깊을 때
+     */
+    public Page<MemberFieldRow> findFields(List<MemberField> fields, Pageable pageable) {
+        if (archive.isEmpty()) {
+            return memberRepository.findFields(fields, pageable);
+        }
+        List<TieredRow> rows = page(MemberOrder.of(pageable.getSort()), MemberFilter.NONE, pageable);
+        if (fields.contains(MemberField.TEAM_NAME)) {
+            rows = withTeamNames(rows);
+        }
+        String[] names = fields.stream().map(MemberField::getFieldName).toArray(String[]::new);
+        List<MemberFieldRow> content = rows.stream()
+                .map(row -> new MemberFieldRow(names, fields.stream().map(field -> value(field, row)).toArray()))
+                .toList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> memberRepository.count() + archive.count());
+    }
+
+    private List<TieredRow> page(MemberOrder order, MemberFilter filter, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return top(order, filter, Long.MAX_VALUE);
+        }
+        long limit = pageable.getOffset() + pageable.getPageSize();
+        if (limit > maxPageOffset) {
+            throw new IllegalArgumentException("페이지가 너무 깊습니다. offset + size 는 " + maxPageOffset + " 이하여야 합니다. offset=" + pageable.getOffset());
+        }
+        List<TieredRow> rows = top(order, filter, limit);
+        return rows.size() > pageable.getOffset() ? rows.subList((int) pageable.getOffset(), rows.size()) : List.of();
+    }
+
+    /**
+     * hot / cold 에서 각각 앞쪽 limit 건을 읽어 order 순서로 병합한다.
+     */
+    private List<TieredRow> top(MemberOrder order, MemberFilter filter, long limit) {
+        TypedQuery<Object[]> query = filter.bind(em.createQuery(TieredRow.SELECT + filter.where() + order.orderBy(), Object[].class));
+        if (limit < Integer.MAX_VALUE) {
+            query.setMaxResults((int) limit);
+        }
+        List<TieredRow> hot = query.getResultList().stream().map(TieredRow::hot).toList();
+        Set<Long> hotIds = new HashSet<>(hot.size() * 2);
+        hot.forEach(row -> hotIds.add(row.getId()));
+        List<TieredRow> cold = archive.findTop(order, filter, (int) Math.min(limit, Integer.MAX_VALUE), this::teamNames).stream()
+                .filter(row -> !hotIds.contains(row.getId()))
+                .toList();
+
+        Comparator<TieredRow> comparator = order.comparator();
+        List<TieredRow> merged = new ArrayList<>((int) Math.min(limit, hot.size() + cold.size()));
+        int h = 0;
+        int c = 0;
+        while (merged.size() < limit && (h < hot.size() || c < cold.size())) {
+            merged.add(c >= cold.size() || (h < hot.size() && comparator.compare(hot.get(h), cold.get(c)) <= 0)
+                    ? hot.get(h++)
+                    : cold.get(c++));
+        }
+        return merged;
+    }
+
+    private long countHot(MemberFilter filter) {
+        return filter.bind(em.createQuery("select count(m) from Member m left join m.team t" + filter.where(), Long.class))
+                .getSingleResult();
+    }
+
+    /**
+     * 팀 이름이 비어 있는 행(아카이브에서 읽은 행)을 팀 테이블에서 채운다.
+     */
+    private List<TieredRow> withTeamNames(List<TieredRow> rows) {
+        Set<Long> teamIds = new HashSet<>();
+        for (TieredRow row : rows) {
+            if (row.getTeamId() != null && row.getTeamName() == null) {
+                teamIds.add(row.getTeamId());
+            }
+        }
+        if (teamIds.isEmpty()) {
+            return rows;
+        }
+        Map<Long, String> names = teamNames(teamIds);
+        return rows.stream()
+                .map(row -> row.getTeamId() != null && row.getTeamName() == null ? row.withTeamName(names.get(row.getTeamId())) : row)
+                .toList();
+    }
+
+    private Map<Long, String> teamNames(Collection<Long> teamIds) {
+        if (teamIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, String> names = new HashMap<>();
+        em.createQuery("select t.id, t.name from Team t where t.id in :ids", Object[].class)
+                .setParameter("ids", teamIds)
+                .getResultList()
+                .forEach(row -> names.put((Long) row[0], (String) row[1]));
+        return names;
+    }
+
+    private String teamName(Long teamId) {
+        if (teamId == null) {
+            return null;
+        }
+        return teamRepository.findById(teamId).map(Team::getName).orElse(null);
+    }
+
+    private static Object value(MemberField field, TieredRow row) {
+        return switch (field) {
+            case ID -> row.getId();
+            case USERNAME -> row.getUsername();
+            case AGE -> row.getAge();
+            case TEAM_NAME -> row.getTeamName();
+            case CREATED_DATE -> row.getCreatedDate();
+            case LAST_MODIFIED_DATE -> row.getLastModifiedDate();
+            case CREATED_BY -> row.getCreatedBy();
+            case LAST_MODIFIED_BY -> row.getLastModifiedBy();
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package study.datajpa.archive;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * hot(member 테이블) / cold(아카이브) 목록을 병합할 때 쓰는 회원 한 행.
+ * 아카이브된 회원의 createdBy / lastModifiedBy 는 null, teamName 은 팀 테이블에서 채운다(필요할 때만).
+ */
+@Getter
+@AllArgsConstructor
+final class TieredRow {
+
+    static final String SELECT = "select m.id, m.username, m.age, t.id, t.name, m.createdDate, m.lastModifiedDate," +
+            " m.createdBy, m.lastModifiedBy from Member m left join m.team t";
+
+    private final Long id;
+    private final String username;
+    private final int age;
+    private final Long teamId;
+    private final String teamName;
+    private final LocalDateTime createdDate;
+    private final LocalDateTime lastModifiedDate;
+    private final String createdBy;
+    private final String lastModifiedBy;
+
+    static TieredRow hot(Object[] row) {
+        return new TieredRow((Long) row[0], (String) row[1], (Integer) row[2], (Long) row[3], (String) row[4],
+                (LocalDateTime) row[5], (LocalDateTime) row[6], (String) row[7], (String) row[8]);
+    }
+
+    TieredRow withTeamName(String teamName) {
+        return new TieredRow(id, username, age, teamId, teamName, createdDate, lastModifiedDate, createdBy, lastModifiedBy);
+    }
+
+    static TieredRow cold(ArchivedMember member, String teamName) {
+        return new TieredRow(member.getId(), member.getUsername(), member.getAge(), member.getTeamId(), teamName,
+                member.getCreatedDate(), member.getLastModifiedDate(), null, null);
+    }
+}
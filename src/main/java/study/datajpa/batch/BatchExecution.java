@@ -0,0 +1,76 @@
+package study.datajpa.batch;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 실행 중인 배치. 진행률과 파티션별 처리량을 실행 중에도 조회할 수 있다.
+ */
+public class BatchExecution<R> {
+
+    private final long totalRows;
+    private final long startNanos = System.nanoTime();
+    private final LongAdder processedRows = new LongAdder();
+    private final List<PartitionStats> partitions = new CopyOnWriteArrayList<>();
+    private ForkJoinPool pool;
+    private ForkJoinTask<R> task;
+
+    BatchExecution(long totalRows) {
+        this.totalRows = totalRows;
+    }
+
+    void start(ForkJoinPool pool, ForkJoinTask<R> task) {
+        this.pool = pool;
+        this.task = pool.submit(task);
+    }
+
+    PartitionStats addPartition(long fromId, long toId) {
+        PartitionStats stats = new PartitionStats(fromId, toId);
+        partitions.add(stats);
+        return stats;
+    }
+
+    void chunkDone(PartitionStats stats, int rows) {
+        stats.chunkDone(rows);
+        processedRows.add(rows);
+    }
+
+    /**
+     * 끝날 때까지 기다려서 합쳐진 결과를 돌려준다. 파티션에서 난 예외는 그대로 던진다.
+     */
+    public R join() {
+        try {
+            return task.join();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public boolean isDone() {
+        return task.isDone();
+    }
+
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    public long getProcessedRows() {
+        return processedRows.sum();
+    }
+
+    public double getProgress() {
+        return totalRows == 0 ? 1.0 : Math.min(1.0, (double) getProcessedRows() / totalRows);
+    }
+
+    public List<PartitionStats> getPartitions() {
+        return List.copyOf(partitions);
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
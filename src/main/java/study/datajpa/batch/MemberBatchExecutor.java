@@ -0,0 +1,152 @@
+package study.datajpa.batch;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Member;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * member_id 범위를 partitions 개의 같은 크기 구간으로 나눠 병렬로 처리한다(fork-join).
+ * 구간은 파티션 번호 범위를 반씩 쪼개서 만들므로 리프 수는 정확히 partitions 개다. (id 범위가 더 좁으면 그 폭만큼)
+ * 파티션마다 EntityManager 와 트랜잭션을 따로 쓰고, chunkSize 건마다 커밋 후 clear 해서 영속성 컨텍스트를 비운다.
+ * 파티션 결과는 분할의 역순으로 MemberBatchJob.merge 로 합친다.
+ */
+@Component
+public class MemberBatchExecutor {
+
+    private final EntityManagerFactory emf;
+
+    public MemberBatchExecutor(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    public <R> R run(MemberBatchJob<R> job, int partitions, int chunkSize) {
+        return start(job, partitions, chunkSize).join();
+    }
+
+    public <R> BatchExecution<R> start(MemberBatchJob<R> job, int partitions, int chunkSize) {
+        if (partitions < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("partitions, chunkSize 는 1 이상이어야 합니다.");
+        }
+
+        long minId;
+        long maxId;
+        long total;
+        EntityManager em = emf.createEntityManager();
+        try {
+            Object[] bounds = em.createQuery("select min(m.id), max(m.id), count(m) from Member m", Object[].class)
+                    .getSingleResult();
+            total = (Long) bounds[2];
+            minId = total == 0 ? 0 : (Long) bounds[0];
+            maxId = total == 0 ? -1 : (Long) bounds[1];
+        } finally {
+            em.close();
+        }
+
+        long span = Math.max(1, maxId - minId + 1);
+        int leaves = (int) Math.min(partitions, span);
+        Partitioning partitioning = new Partitioning(minId, span, leaves);
+
+        BatchExecution<R> execution = new BatchExecution<>(total);
+        execution.start(new ForkJoinPool(partitions), new RangeTask<>(job, partitioning, 0, leaves, chunkSize, execution));
+        return execution;
+    }
+
+    /**
+     * [minId, minId + span) 를 leaves 개로 나눈다. 앞쪽 span % leaves 개 구간이 1 씩 더 크다.
+     */
+    private static class Partitioning {
+
+        private final long minId;
+        private final long span;
+        private final int leaves;
+
+        Partitioning(long minId, long span, int leaves) {
+            this.minId = minId;
+            this.span = span;
+            this.leaves = leaves;
+        }
+
+        long fromId(int index) {
+            return minId + span / leaves * index + Math.min(index, span % leaves);
+        }
+
+        long toId(int index) {
+            return fromId(index + 1) - 1;
+        }
+    }
+
+    private class RangeTask<R> extends RecursiveTask<R> {
+
+        private final MemberBatchJob<R> job;
+        private final Partitioning partitioning;
+        //파티션 번호 [first, last)
+        private final int first;
+        private final int last;
+        private final int chunkSize;
+        private final BatchExecution<R> execution;
+
+        RangeTask(MemberBatchJob<R> job, Partitioning partitioning, int first, int last, int chunkSize, BatchExecution<R> execution) {
+            this.job = job;
+            this.partitioning = partitioning;
+            this.first = first;
+            this.last = last;
+            this.chunkSize = chunkSize;
+            this.execution = execution;
+        }
+
+        @Override
+        protected R compute() {
+            if (last - first == 1) {
+                return processRange(partitioning.fromId(first), partitioning.toId(first));
+            }
+            int mid = first + (last - first) / 2;
+            RangeTask<R> left = new RangeTask<>(job, partitioning, first, mid, chunkSize, execution);
+            RangeTask<R> right = new RangeTask<>(job, partitioning, mid, last, chunkSize, execution);
+            left.fork();
+            R rightResult = right.compute();
+            return job.merge(left.join(), rightResult);
+        }
+
+        private R processRange(long fromId, long toId) {
+            PartitionStats stats = execution.addPartition(fromId, toId);
+            R partial = job.createPartial();
+            EntityManager em = emf.createEntityManager();
+            try {
+                long lastId = fromId - 1;
+                while (true) {
+                    em.getTransaction().begin();
+                    List<Member> chunk = em.createQuery(
+                                    "select m from Member m where m.id > :lastId and m.id <= :toId order by m.id", Member.class)
+                            .setParameter("lastId", lastId)
+                            .setParameter("toId", toId)
+                            .setMaxResults(chunkSize)
+                            .getResultList();
+                    for (Member member : chunk) {
+                        job.process(member, partial);
+                    }
+                    em.getTransaction().commit();
+                    em.clear();
+
+                    execution.chunkDone(stats, chunk.size());
+                    if (chunk.size() < chunkSize) {
+                        return partial;
+                    }
+                    lastId = chunk.get(chunk.size() - 1).getId();
+                }
+            } catch (RuntimeException e) {
+                if (em.getTransaction().isActive()) {
+                    em.getTransaction().rollback();
+                }
+                throw e;
+            } finally {
+                em.close();
+                stats.finish();
+            }
+        }
+    }
+}
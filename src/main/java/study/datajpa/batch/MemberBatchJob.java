@@ -0,0 +1,50 @@
+package study.datajpa.batch;
+
+import study.datajpa.entity.Member;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * MemberBatchExecutor 가 파티션마다 실행하는 작업.
+ * 파티션마다 createPartial 로 만든 부분 결과에 행을 누적하고, 끝나면 merge 로 합친다.
+ * process 에서 회원을 변경하면 청크 커밋 때 반영된다.
+ */
+public interface MemberBatchJob<R> {
+
+    R createPartial();
+
+    void process(Member member, R partial);
+
+    R merge(R left, R right);
+
+    /**
+     * 팀별 나이 분포. key: team_id (팀 없음은 null), value: bucketWidth 단위 구간별 인원 (마지막 구간은 그 이상 전부)
+     */
+    static MemberBatchJob<Map<Long, long[]>> ageHistogramByTeam(int bucketWidth, int bucketCount) {
+        return new MemberBatchJob<>() {
+            @Override
+            public Map<Long, long[]> createPartial() {
+                return new HashMap<>();
+            }
+
+            @Override
+            public void process(Member member, Map<Long, long[]> partial) {
+                Long teamId = member.getTeam() != null ? member.getTeam().getId() : null;
+                int bucket = Math.min(Math.max(member.getAge(), 0) / bucketWidth, bucketCount - 1);
+                partial.computeIfAbsent(teamId, key -> new long[bucketCount])[bucket]++;
+            }
+
+            @Override
+            public Map<Long, long[]> merge(Map<Long, long[]> left, Map<Long, long[]> right) {
+                right.forEach((teamId, counts) -> left.merge(teamId, counts, (a, b) -> {
+                    for (int i = 0; i < a.length; i++) {
+                        a[i] += b[i];
+                    }
+                    return a;
+                }));
+                return left;
+            }
+        };
+    }
+}
@@ -0,0 +1,54 @@
+package study.datajpa.batch;
+
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 파티션 하나(member_id 범위)의 진행 상황
+ */
+@Getter
+public class PartitionStats {
+
+    private final long fromId;
+    private final long toId;
+    private final long startNanos = System.nanoTime();
+    private volatile long rows;
+    private volatile long chunks;
+    private volatile long endNanos;
+
+    PartitionStats(long fromId, long toId) {
+        this.fromId = fromId;
+        this.toId = toId;
+    }
+
+    // 파티션을 맡은 스레드만 호출한다
+    void chunkDone(int chunkRows) {
+        rows += chunkRows;
+        chunks++;
+    }
+
+    void finish() {
+        endNanos = System.nanoTime();
+    }
+
+    public boolean isDone() {
+        return endNanos != 0;
+    }
+
+    public long getElapsedMillis() {
+        long end = isDone() ? endNanos : System.nanoTime();
+        return TimeUnit.NANOSECONDS.toMillis(end - startNanos);
+    }
+
+    public double getRowsPerSecond() {
+        long end = isDone() ? endNanos : System.nanoTime();
+        long elapsed = end - startNanos;
+        return elapsed == 0 ? 0 : rows * 1_000_000_000.0 / elapsed;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%d..%d] rows=%d chunks=%d %.0f rows/s", fromId, toId, rows, chunks, getRowsPerSecond());
+    }
+}
@@ -0,0 +1,74 @@
+package study.datajpa.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.entity.Member;
+
+/**
+ * 회원이 수정/삭제되면 응답 캐시에서 뺀다. (벌크 update/delete 는 엔티티 이벤트가 없으므로 반영되지 않는다)
+ * 커밋 전에 다른 요청이 옛 값을 다시 캐시했을 수 있으므로 커밋 후에 한 번 더 지운다.
+ * <p>
+ * 엔티티가 캐시 패키지를 알지 않도록 @EntityListeners 대신 Hibernate 이벤트 리스너로 등록한다.
+ */
+@Component
+public class MemberResponseCacheListener implements PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory emf;
+    private final OffHeapResponseCache memberResponseCache;
+
+    public MemberResponseCacheListener(EntityManagerFactory emf, OffHeapResponseCache memberResponseCache) {
+        this.emf = emf;
+        this.memberResponseCache = memberResponseCache;
+    }
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Member) {
+            invalidate((Long) event.getId());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            invalidate((Long) event.getId());
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void invalidate(long id) {
+        memberResponseCache.invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    memberResponseCache.invalidate(id);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package study.datajpa.cache;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 직렬화된 응답 바이트를 힙 밖(direct ByteBuffer)에 두는 캐시. key 는 양수 long(회원 id).
+ * <ul>
+ *     <li>데이터: 고정 크기 링 버퍼에 [key 8][body 길이 4][content-type 길이 2][content-type][body] 를 이어 쓴다.
+ *     공간이 모자라면 가장 오래된 항목부터 지운다(FIFO).</li>
+ *     <li>인덱스: key -> 데이터 위치를 기본형 배열의 open addressing(linear probing) 해시 테이블로 찾는다.</li>
+ * </ul>
+ * 읽기 락을 잡은 동안에는 본문을 byte[] 로 복사만 하고, 소켓 쓰기는 락을 푼 뒤에 한다.
+ * (느린 클라이언트가 put / invalidate 의 쓰기 락을 막지 않게)
+ * <p>
+ * 응답은 direct 버퍼에서 바로 쓰지 않고 한 번 복사한다(zero-copy 아님). ServletOutputStream(Servlet 6.0)은 byte[] 만 받으므로
+ * 어차피 힙으로 한 번은 옮겨야 하고, 락 없이 슬라이스를 쓰다가 링 버퍼가 덮이면 이미 보낸 바이트는 되돌릴 수 없다.
+ * 복사 크기는 항목 상한(용량의 1/4)을 넘지 않는다.
+ * <p>
+ * 무효화 세대(generation)는 key 의 stripe 별로 센다. 한 회원이 수정돼도 다른 stripe 의 캐시 채우기는 막히지 않는다.
+ */
+public class OffHeapResponseCache {
+
+    private static final int HEADER = 8 + 4 + 2;
+    private static final long WRAP = -1L;
+    private static final long EMPTY = 0L;
+    private static final int GENERATION_STRIPES = 64;
+
+    private final ByteBuffer data;
+    private final int capacity;
+    private final int maxEntries;
+    private final long[] keys;
+    private final int[] offsets;
+    private final int mask;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int entries;
+    private int head;
+    private int tail;
+    private int used;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public OffHeapResponseCache(int capacityBytes, int maxEntries) {
+        if (capacityBytes < HEADER * 2 || maxEntries < 1) {
+            throw new IllegalArgumentException("capacityBytes=" + capacityBytes + ", maxEntries=" + maxEntries);
+        }
+        this.data = ByteBuffer.allocateDirect(capacityBytes);
+        this.capacity = capacityBytes;
+        this.maxEntries = maxEntries;
+        int tableSize = Integer.highestOneBit(Math.max(2, maxEntries) * 2 - 1) << 1;
+        this.keys = new long[tableSize];
+        this.offsets = new int[tableSize];
+        this.mask = tableSize - 1;
+    }
+
+    /**
+     * 캐시된 응답이 있으면 response 에 쓰고 true.
+     */
+    public boolean writeTo(long key, HttpServletResponse response) throws IOException {
+        String contentType = null;
+        byte[] body;
+        lock.readLock().lock();
+        try {
+            int slot = find(key);
+            if (slot < 0) {
+                return false;
+            }
+            int offset = offsets[slot];
+            int bodyLength = data.getInt(offset + 8);
+            int contentTypeLength = data.getShort(offset + 12);
+            if (contentTypeLength > 0) {
+                byte[] contentTypeBytes = new byte[contentTypeLength];
+                data.get(offset + HEADER, contentTypeBytes);
+                contentType = new String(contentTypeBytes, StandardCharsets.ISO_8859_1);
+            }
+            body = new byte[bodyLength];
+            data.get(offset + HEADER + contentTypeLength, body);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (contentType != null) {
+            response.setContentType(contentType);
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+        return true;
+    }
+
+    /**
+     * key 가 속한 stripe 에 invalidate 가 일어날 때마다 바뀐다. 응답을 만들기 전에 읽어 두었다가 put 에 넘기면
+     * 그 사이에 무효화된 응답은 저장하지 않는다.
+     */
+    public long generation(long key) {
+        return generations.get(stripe(key));
+    }
+
+    /**
+     * 저장하면 true. 항목이 너무 크거나(용량의 1/4 초과) key 의 generation 이 바뀌었으면 저장하지 않는다.
+     */
+    public boolean put(long key, String contentType, byte[] body, long expectedGeneration) {
+        checkKey(key);
+        byte[] contentTypeBytes = contentType != null ? contentType.getBytes(StandardCharsets.ISO_8859_1) : new byte[0];
+        int size = HEADER + contentTypeBytes.length + body.length;
+        if (size > capacity / 4 || contentTypeBytes.length > Short.MAX_VALUE) {
+            return false;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (generations.get(stripe(key)) != expectedGeneration) {
+                return false;
+            }
+            removeFromIndex(key);
+            while (entries >= maxEntries) {
+                evictOldest();
+            }
+            reserve(size);
+
+            int offset = head;
+            data.putLong(offset, key);
+            data.putInt(offset + 8, body.length);
+            data.putShort(offset + 12, (short) contentTypeBytes.length);
+            data.put(offset + HEADER, contentTypeBytes);
+            data.put(offset + HEADER + contentTypeBytes.length, body);
+            head += size;
+            used += size;
+            addToIndex(key, offset);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void invalidate(long key) {
+        lock.writeLock().lock();
+        try {
+            generations.incrementAndGet(stripe(key));
+            removeFromIndex(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 전부 비운다. (테이블을 통째로 비우는 등 엔티티 이벤트 없이 데이터가 바뀌었을 때)
+     */
+    public void invalidateAll() {
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < GENERATION_STRIPES; i++) {
+                generations.incrementAndGet(i);
+            }
+            Arrays.fill(keys, EMPTY);
+            entries = 0;
+            head = 0;
+            tail = 0;
+            used = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        return entries;
+    }
+
+    public int usedBytes() {
+        return used;
+    }
+
+    public int capacityBytes() {
+        return capacity;
+    }
+
+    /**
+     * head 에서 size 바이트를 연속으로 쓸 수 있을 때까지 오래된 항목을 지운다.
+     */
+    private void reserve(int size) {
+        while (true) {
+            if (used == 0) {
+                head = 0;
+                tail = 0;
+            }
+            boolean wrapped = head < tail || (head == tail && used > 0);
+            if (!wrapped) {
+                if (capacity - head >= size) {
+                    return;
+                }
+                // 끝부분 자투리는 버리고 처음으로 돌아간다
+                if (capacity - head >= 8) {
+                    data.putLong(head, WRAP);
+                }
+                used += capacity - head;
+                head = 0;
+            } else {
+                if (tail - head >= size) {
+                    return;
+                }
+                evictOldest();
+            }
+        }
+    }
+
+    private void evictOldest() {
+        if (used == 0) {
+            return;
+        }
+        if (capacity - tail < HEADER || data.getLong(tail) == WRAP) {
+            used -= capacity - tail;
+            tail = 0;
+            return;
+        }
+        long key = data.getLong(tail);
+        int size = HEADER + data.getShort(tail + 12) + data.getInt(tail + 8);
+        int slot = find(key);
+        if (slot >= 0 && offsets[slot] == tail) {
+            removeSlot(slot);
+        }
+        tail += size;
+        used -= size;
+        if (tail == capacity) {
+            tail = 0;
+        }
+    }
+
+    private int find(long key) {
+        int slot = hash(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void addToIndex(long key, int offset) {
+        int slot = hash(key);
+        while (keys[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        offsets[slot] = offset;
+        entries++;
+    }
+
+    private void removeFromIndex(long key) {
+        int slot = find(key);
+        if (slot >= 0) {
+            removeSlot(slot);
+        }
+    }
+
+    // 뒤에 이어진 항목을 당겨서 탐색 체인이 끊기지 않게 한다 (backward shift deletion)
+    private void removeSlot(int slot) {
+        entries--;
+        int hole = slot;
+        int next = (slot + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = hash(keys[next]);
+            boolean movable = hole <= next ? (home <= hole || home > next) : (home <= hole && home > next);
+            if (movable) {
+                keys[hole] = keys[next];
+                offsets[hole] = offsets[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = EMPTY;
+    }
+
+    private int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static int stripe(long key) {
+        return (int) (key & (GENERATION_STRIPES - 1));
+    }
+
+    private static void checkKey(long key) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("key 는 양수여야 합니다. key=" + key);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package study.datajpa.cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+@Configuration
+public class ResponseCacheConfig {
+
+    /**
+     * /members/{id}, /members2/{id} 응답 캐시
+     * metrics: response.cache.entries / response.cache.used (bytes)
+     */
+    @Bean
+    public OffHeapResponseCache memberResponseCache(@Value("${response-cache.member.capacity:64MB}") DataSize capacity,
+                                                    @Value("${response-cache.member.max-entries:1000000}") int maxEntries,
+                                                    MeterRegistry meterRegistry) {
+        OffHeapResponseCache cache = new OffHeapResponseCache(Math.toIntExact(capacity.toBytes()), maxEntries);
+        Gauge.builder("response.cache.entries", cache, OffHeapResponseCache::size)
+                .tag("name", "member")
+                .register(meterRegistry);
+        Gauge.builder("response.cache.used", cache, OffHeapResponseCache::usedBytes)
+                .tag("name", "member")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        return cache;
+    }
+}
@@ -0,0 +1,48 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import study.datajpa.hotkey.HotKeyRegistry;
+import study.datajpa.hotkey.HotKeyReport;
+
+import java.util.List;
+
+/**
+ * 조회 key 의 접근 빈도 (캐시 크기 산정용)
+ * <pre>GET /hotkeys/member.id?k=20&cacheSize=100&cacheSize=1000</pre>
+ */
+@RestController
+@RequiredArgsConstructor
+public class HotKeyController {
+
+    private final HotKeyRegistry hotKeyRegistry;
+
+    @GetMapping("/hotkeys")
+    public List<HotKeyReport> all(@RequestParam(value = "k", defaultValue = "10") int k,
+                                  @RequestParam(value = "cacheSize", defaultValue = "10,100,1000") List<Integer> cacheSizes) {
+        checkSizes(k, cacheSizes);
+        return hotKeyRegistry.names().stream()
+                .map(name -> hotKeyRegistry.report(name, k, cacheSizes).orElseThrow())
+                .toList();
+    }
+
+    @GetMapping("/hotkeys/{name}")
+    public HotKeyReport one(@PathVariable("name") String name,
+                            @RequestParam(value = "k", defaultValue = "20") int k,
+                            @RequestParam(value = "cacheSize", defaultValue = "10,100,1000") List<Integer> cacheSizes) {
+        checkSizes(k, cacheSizes);
+        return hotKeyRegistry.report(name, k, cacheSizes)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "추적하지 않는 key 입니다. name=" + name));
+    }
+
+    private static void checkSizes(int k, List<Integer> cacheSizes) {
+        if (k < 0 || cacheSizes.stream().anyMatch(size -> size == null || size < 0)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "k 와 cacheSize 는 0 이상이어야 합니다. k=" + k + ", cacheSize=" + cacheSizes);
+        }
+    }
+}
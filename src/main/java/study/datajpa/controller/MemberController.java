@@ -4,12 +4,23 @@ import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import study.datajpa.archive.TieredMemberReader;
+import study.datajpa.dto.MemberChangePage;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberFieldRow;
+import study.datajpa.dto.MemberSearchCondition;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberChangeFeed;
+import study.datajpa.repository.MemberField;
+import study.datajpa.repository.MemberLookup;
 import study.datajpa.repository.MemberRepository;
 
 @RestController
@@ -17,21 +28,65 @@ import study.datajpa.repository.MemberRepository;
 public class MemberController {
 
     private final MemberRepository memberRepository;
+    private final MemberLookup memberLookup;
+    private final TieredMemberReader tieredMemberReader;
+    private final MemberChangeFeed memberChangeFeed;
+
+    @GetMapping("/members/changes")
+    public MemberChangePage changes(@RequestParam(value = "since", required = false) String since,
+                                    @RequestParam(value = "size", defaultValue = "100") int size) {
+        try {
+            return memberChangeFeed.changes(since, Math.max(1, Math.min(size, 1000)));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
 
     @GetMapping("/members/{id}")
     public String findMember(@PathVariable("id") Long id) {
-        Member member = memberRepository.findById(id).get();
+        MemberDto member = memberLookup.findById(id).get();
         return member.getUsername();
     }
 
     @GetMapping("/members2/{id}")
-    public String findMember(@PathVariable("id") Member member) {
+    public String findMember(@PathVariable("id") MemberDto member) {
         return member.getUsername();
     }
 
     @GetMapping("/members")
     public Page<MemberDto> list(@PageableDefault(size=5) Pageable pageable) {
-        return memberRepository.findAll(pageable).map(MemberDto::new);
+        try {
+            return tieredMemberReader.findAll(pageable);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping(value = "/members", params = "fields")
+    public Page<MemberFieldRow> list(@RequestParam("fields") String fields, @PageableDefault(size=5) Pageable pageable) {
+        // 알 수 없는 필드나 정렬 속성은 400
+        try {
+            return tieredMemberReader.findFields(MemberField.parse(fields), pageable);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping("/members/search")
+    public Page<MemberDto> search(MemberSearchCondition condition, @PageableDefault(size=5) Pageable pageable) {
+        try {
+            return tieredMemberReader.search(condition, pageable);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    //cursor 는 이전 페이지의 마지막 회원 id (첫 페이지는 생략)
+    @GetMapping("/members/search/cursor")
+    public Slice<MemberDto> search(MemberSearchCondition condition,
+                                   @RequestParam(value = "cursor", required = false) Long cursor,
+                                   @RequestParam(value = "size", defaultValue = "5") int size) {
+        return tieredMemberReader.searchByCursor(condition, cursor, Math.max(1, Math.min(size, 1000)));
     }
 
 //    @PostConstruct
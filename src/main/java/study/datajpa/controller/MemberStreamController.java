@@ -0,0 +1,36 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberRow;
+import study.datajpa.reactive.MemberReactiveRepository;
+
+/**
+ * 회원 목록 스트리밍 (NDJSON). 한 줄을 내보낸 뒤 다음 행을 요청하므로 느린 클라이언트에 맞춰 읽는다.
+ */
+@RestController
+@RequiredArgsConstructor
+public class MemberStreamController {
+
+    private final MemberReactiveRepository memberReactiveRepository;
+
+    @GetMapping(value = "/stream/members", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<MemberRow> members() {
+        return memberReactiveRepository.findAll();
+    }
+
+    @GetMapping(value = "/stream/members", params = "username", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<MemberRow> members(@RequestParam("username") String username) {
+        return memberReactiveRepository.findByUsername(username);
+    }
+
+    @GetMapping(value = "/stream/members/dto", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<MemberDto> memberDtos() {
+        return memberReactiveRepository.findMemberDto();
+    }
+}
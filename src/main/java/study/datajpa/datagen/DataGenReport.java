@@ -0,0 +1,29 @@
+package study.datajpa.datagen;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 생성 결과. 만든 행의 id 는 firstTeamId / firstMemberId 부터 연속이다.
+ */
+@Getter
+@AllArgsConstructor
+public class DataGenReport {
+
+    private final long teams;
+    private final long firstTeamId;
+    private final long members;
+    private final long firstMemberId;
+    private final long items;
+    private final long elapsedMillis;
+
+    public long rowsPerSecond() {
+        return (teams + members + items) * 1000 / Math.max(1, elapsedMillis);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("datagen %d ms (%d rows/s): teams=%d (id %d~) members=%d (id %d~) items=%d",
+                elapsedMillis, rowsPerSecond(), teams, firstTeamId, members, firstMemberId, items);
+    }
+}
@@ -0,0 +1,41 @@
+package study.datajpa.datagen;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * datagen 프로필로 띄우면 datagen.* 조건대로 데이터를 만들고 종료한다.
+ * <pre>
+ * ./gradlew bootRun --args='--spring.profiles.active=embedded,datagen --datagen.members=5000000'
+ * </pre>
+ * 만든 데이터로 애플리케이션을 다시 띄울 때는 스키마를 새로 만들지 않도록 --spring.jpa.hibernate.ddl-auto=none 을 준다.
+ */
+@Component
+@Profile("datagen")
+public class DataGenRunner implements ApplicationRunner {
+
+    private final DataGenerator generator;
+    private final Environment environment;
+    private final ConfigurableApplicationContext context;
+
+    public DataGenRunner(DataGenerator generator, Environment environment, ConfigurableApplicationContext context) {
+        this.generator = generator;
+        this.environment = environment;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        DataGenSpec spec = Binder.get(environment).bind("datagen", DataGenSpec.class).orElseGet(DataGenSpec::new);
+        generator.generate(spec);
+        if (environment.getProperty("datagen.exit", Boolean.class, true)) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+}
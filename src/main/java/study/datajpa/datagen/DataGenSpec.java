@@ -0,0 +1,77 @@
+package study.datajpa.datagen;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * 합성 데이터 생성 조건. datagen 프로필에서는 datagen.* 설정으로 채워지고, 벤치마크 / 부하 테스트에서는 직접 만들어 쓴다.
+ * 같은 seed 와 같은 조건이면 workers, batchSize 와 상관없이 같은 행이 만들어진다.
+ */
+@Getter @Setter
+@ToString
+public class DataGenSpec {
+
+    public enum AgeDistribution {UNIFORM, NORMAL}
+
+    private long seed = 42;
+
+    private int teams = 1_000;
+    private long members = 1_000_000;
+    private long items = 0;
+
+    private int workers = Runtime.getRuntime().availableProcessors();
+    private int batchSize = 1_000;
+
+    // 팀 크기 치우침: 순위 k 인 팀에 1/k^teamSkew 비율로 배정 (0 이면 균등)
+    private double teamSkew = 1.0;
+    // 팀이 없는 회원 비율
+    private double noTeamRatio = 0.0;
+
+    private AgeDistribution ageDistribution = AgeDistribution.NORMAL;
+    private int ageMin = 0;
+    private int ageMax = 100;
+    private double ageMean = 35;
+    private double ageStdDev = 12;
+
+    // 서로 다른 username 수 (members 이상이면 모두 다르다)
+    private long usernameCardinality = Long.MAX_VALUE;
+    private String usernamePrefix = "user";
+    private String teamNamePrefix = "gen-team";
+
+    // 감사 컬럼. createdDate 는 id 순으로 [createdFrom, createdTo) 에 퍼지고,
+    // modifiedRatio 비율의 행만 lastModifiedDate 가 createdDate 이후 createdTo 까지 중 임의 시각이 된다
+    private String createdFrom = "2024-01-01T00:00:00";
+    private String createdTo = "2026-01-01T00:00:00";
+    private double modifiedRatio = 0.3;
+    // createdBy / lastModifiedBy 로 쓸 사용자 수
+    private int auditors = 1_000;
+
+    // 생성 전에 member / team / item 을 비우고 시퀀스를 처음으로 돌린다 (id 까지 재현된다)
+    private boolean truncate = false;
+
+    LocalDateTime createdFromTime() {
+        return LocalDateTime.parse(createdFrom);
+    }
+
+    LocalDateTime createdToTime() {
+        return LocalDateTime.parse(createdTo);
+    }
+
+    void validate() {
+        if (teams < 0 || members < 0 || items < 0 || workers < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("teams, members, items 는 0 이상, workers, batchSize 는 1 이상이어야 합니다. " + this);
+        }
+        if (members > 0 && teams == 0 && noTeamRatio < 1.0) {
+            throw new IllegalArgumentException("팀 없이 회원을 만들려면 noTeamRatio 가 1 이어야 합니다. " + this);
+        }
+        if (ageMin > ageMax || usernameCardinality < 1 || auditors < 1) {
+            throw new IllegalArgumentException("ageMin <= ageMax, usernameCardinality / auditors >= 1 이어야 합니다. " + this);
+        }
+        if (!createdFromTime().isBefore(createdToTime())) {
+            throw new IllegalArgumentException("createdFrom 은 createdTo 보다 앞이어야 합니다. " + this);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package study.datajpa.datagen;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import study.datajpa.archive.MemberArchive;
+import study.datajpa.cache.OffHeapResponseCache;
+import study.datajpa.repository.TeamNameCache;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Team / Member / Item 합성 데이터를 JDBC 배치 insert 로 대량 생성한다.
+ * <p>
+ * 엔티티를 거치지 않으므로 영속성 컨텍스트, 감사(auditing), 엔티티 리스너 비용이 없다.
+ * 행을 CHUNK_ROWS 단위 청크로 나눠 workers 개 스레드가 청크를 하나씩 가져가 커넥션마다 따로 쓰고 청크마다 커밋한다.
+ * 청크마다 (seed, 테이블, 청크 번호)로 난수를 새로 만들기 때문에 병렬로 써도 결과는 같다.
+ * <p>
+ * id 는 Hibernate 시퀀스에서 미리 구간을 잡아 두고(시퀀스를 구간 뒤로 restart) 직접 넣는다.
+ * 생성 중이나 생성 후에 애플리케이션이 persist 해도 id 가 겹치지 않는다.
+ * 팀 이름(uk_team_name)과 item id 도 잡아 둔 구간에서 만들어서 truncate 없이 같은 seed 로 다시 돌려도 겹치지 않는다.
+ * <p>
+ * truncate 는 시퀀스를 1 부터 다시 시작하므로 아카이브가 비어 있지 않으면 거절한다 (아카이브된 id 와 겹친다).
+ * 엔티티 이벤트 없이 지우므로 팀 이름 캐시와 회원 응답 캐시도 직접 비운다.
+ */
+@Slf4j
+@Component
+public class DataGenerator {
+
+    static final int CHUNK_ROWS = 10_000;
+
+    // 엔티티 @GeneratedValue 기본값: {엔티티}_seq, allocationSize 50 (pooled 옵티마이저는 시퀀스 값 v 를 받으면 v-49 ~ v 를 쓴다)
+    private static final String TEAM_SEQUENCE = "team_seq";
+    private static final String MEMBER_SEQUENCE = "member_seq";
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final long TEAM_STREAM = 1;
+    private static final long MEMBER_STREAM = 2;
+    private static final long ITEM_STREAM = 3;
+    private static final long AUDITOR_STREAM = 4;
+
+    private static final String INSERT_TEAM = "insert into team (team_id, name) values (?, ?)";
+    private static final String INSERT_MEMBER = "insert into member (member_id, username, age, team_id," +
+            " created_date, last_modified_date, created_by, last_modified_by) values (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_ITEM = "insert into item (id, created_date) values (?, ?)";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TeamNameCache teamNameCache;
+    private final OffHeapResponseCache memberResponseCache;
+    private final MemberArchive archive;
+
+    public DataGenerator(DataSource dataSource, TeamNameCache teamNameCache, OffHeapResponseCache memberResponseCache,
+                         MemberArchive archive) {
+        this.dataSource = unwrap(dataSource);
+        this.jdbcTemplate = new JdbcTemplate(this.dataSource);
+        this.teamNameCache = teamNameCache;
+        this.memberResponseCache = memberResponseCache;
+        this.archive = archive;
+    }
+
+    // p6spy 로 감싼 DataSource 면 풀을 직접 쓴다 (수백만 건의 insert 를 로그로 남기지 않도록)
+    private static DataSource unwrap(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : dataSource;
+        } catch (SQLException e) {
+            return dataSource;
+        }
+    }
+
+    public synchronized DataGenReport generate(DataGenSpec spec) {
+        spec.validate();
+        long start = System.nanoTime();
+        if (spec.isTruncate()) {
+            truncate();
+        }
+
+        long firstTeamId = reserve(TEAM_SEQUENCE, "team", "team_id", spec.getTeams());
+        long firstMemberId = reserve(MEMBER_SEQUENCE, "member", "member_id", spec.getMembers());
+        log.info("datagen 시작 {}", spec);
+
+        insert("team", INSERT_TEAM, spec.getTeams(), TEAM_STREAM, spec, (ps, i, random) -> {
+            ps.setLong(1, firstTeamId + i);
+            ps.setString(2, spec.getTeamNamePrefix() + (firstTeamId + i));
+        });
+
+        ZipfSampler teamSampler = spec.getTeams() > 0 ? new ZipfSampler(spec.getTeams(), spec.getTeamSkew()) : null;
+        String[] auditors = auditors(spec);
+        LocalDateTime from = spec.createdFromTime();
+        long spanMicros = ChronoUnit.MICROS.between(from, spec.createdToTime());
+        insert("member", INSERT_MEMBER, spec.getMembers(), MEMBER_STREAM, spec, (ps, i, random) -> {
+            ps.setLong(1, firstMemberId + i);
+            ps.setString(2, username(spec, i, random));
+            ps.setInt(3, age(spec, random));
+            if (random.nextDouble() < spec.getNoTeamRatio()) {
+                ps.setNull(4, Types.BIGINT);
+            } else {
+                ps.setLong(4, firstTeamId + teamSampler.sample(random));
+            }
+            // id 순으로 증가하는 createdDate (같은 구간 안에서는 임의)
+            long createdMicros = (long) ((i + random.nextDouble()) * spanMicros / spec.getMembers());
+            boolean modified = random.nextDouble() < spec.getModifiedRatio();
+            long modifiedMicros = modified ? createdMicros + (long) (random.nextDouble() * (spanMicros - createdMicros)) : createdMicros;
+            String createdBy = auditors[random.nextInt(auditors.length)];
+            ps.setObject(5, from.plus(createdMicros, ChronoUnit.MICROS));
+            ps.setObject(6, from.plus(modifiedMicros, ChronoUnit.MICROS));
+            ps.setString(7, createdBy);
+            ps.setString(8, modified ? auditors[random.nextInt(auditors.length)] : createdBy);
+        });
+
+        insert("item", INSERT_ITEM, spec.getItems(), ITEM_STREAM, spec, (ps, i, random) -> {
+            // 앞 8바이트는 이번 실행의 첫 회원 id(실행마다 다르다), 뒤 8바이트는 순번을 섞은 값(mix 는 전단사라 실행 안에서 겹치지 않는다)
+            ps.setString(1, new UUID(firstMemberId, mix(spec.getSeed() ^ i)).toString());
+            ps.setObject(2, from.plus((long) (random.nextDouble() * spanMicros), ChronoUnit.MICROS));
+        });
+
+        // 옵티마이저 통계(선택도)를 새 데이터 기준으로 다시 잡는다
+        jdbcTemplate.execute("ANALYZE");
+
+        DataGenReport report = new DataGenReport(spec.getTeams(), firstTeamId, spec.getMembers(), firstMemberId,
+                spec.getItems(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        log.info("{}", report);
+        return report;
+    }
+
+    private void truncate() {
+        if (!archive.isEmpty()) {
+            throw new IllegalStateException("아카이브가 비어 있지 않아 truncate 할 수 없습니다. archive.dir 을 비우고 다시 실행하세요. archived=" + archive.count());
+        }
+        jdbcTemplate.execute("truncate table member_tombstone");
+        jdbcTemplate.execute("truncate table member");
+        jdbcTemplate.execute("truncate table item");
+        jdbcTemplate.execute("delete from team");
+        jdbcTemplate.execute("alter sequence " + TEAM_SEQUENCE + " restart with 1");
+        jdbcTemplate.execute("alter sequence " + MEMBER_SEQUENCE + " restart with 1");
+        teamNameCache.evictAll();
+        memberResponseCache.invalidateAll();
+    }
+
+    /**
+     * count 개의 id 구간을 잡고 첫 id 를 돌려준다. 시퀀스를 구간 뒤로 옮겨서 Hibernate 가 다음에 받는 블록이 구간과 겹치지 않게 한다.
+     */
+    private long reserve(String sequence, String table, String idColumn, long count) {
+        Long next = jdbcTemplate.queryForObject("select next value for " + sequence, Long.class);
+        Long max = jdbcTemplate.queryForObject("select max(" + idColumn + ") from " + table, Long.class);
+        long first = Math.max(next, max == null ? 0 : max) + 1;
+        jdbcTemplate.execute("alter sequence " + sequence + " restart with " + (first + count + ALLOCATION_SIZE));
+        return first;
+    }
+
+    private static String username(DataGenSpec spec, long i, SplittableRandom random) {
+        long n = spec.getUsernameCardinality() >= spec.getMembers() ? i : random.nextLong(spec.getUsernameCardinality());
+        return spec.getUsernamePrefix() + n;
+    }
+
+    private static int age(DataGenSpec spec, SplittableRandom random) {
+        if (spec.getAgeDistribution() == DataGenSpec.AgeDistribution.UNIFORM) {
+            return random.nextInt(spec.getAgeMin(), spec.getAgeMax() + 1);
+        }
+        // 범위를 벗어나면 몇 번 다시 뽑고, 그래도 벗어나면 경계로 자른다
+        long age = 0;
+        for (int attempt = 0; attempt < 8; attempt++) {
+            age = Math.round(spec.getAgeMean() + spec.getAgeStdDev() * random.nextGaussian());
+            if (age >= spec.getAgeMin() && age <= spec.getAgeMax()) {
+                break;
+            }
+        }
+        return (int) Math.max(spec.getAgeMin(), Math.min(spec.getAgeMax(), age));
+    }
+
+    private static String[] auditors(DataGenSpec spec) {
+        SplittableRandom random = random(spec.getSeed(), AUDITOR_STREAM, 0);
+        String[] auditors = new String[spec.getAuditors()];
+        for (int i = 0; i < auditors.length; i++) {
+            auditors[i] = new UUID(random.nextLong(), random.nextLong()).toString();
+        }
+        return auditors;
+    }
+
+    static SplittableRandom random(long seed, long stream, long chunk) {
+        return new SplittableRandom(mix(seed ^ mix(stream * 0x9E3779B97F4A7C15L + chunk)));
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private void insert(String table, String sql, long count, long stream, DataGenSpec spec, RowBinder binder) {
+        if (count == 0) {
+            return;
+        }
+        long chunks = (count + CHUNK_ROWS - 1) / CHUNK_ROWS;
+        int workers = (int) Math.min(spec.getWorkers(), chunks);
+        AtomicLong nextChunk = new AtomicLong();
+        AtomicLong doneChunks = new AtomicLong();
+        AtomicBoolean failed = new AtomicBoolean();
+        long logEvery = Math.max(1, chunks / 10);
+        long start = System.nanoTime();
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < workers; w++) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        writeChunks(sql, count, chunks, stream, spec, binder, nextChunk, failed, () -> {
+                            long done = doneChunks.incrementAndGet();
+                            if (done % logEvery == 0 || done == chunks) {
+                                log.info("datagen {} {}/{}", table, Math.min(count, done * CHUNK_ROWS), count);
+                            }
+                        });
+                    } catch (RuntimeException e) {
+                        failed.set(true);
+                        throw e;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("datagen 이 중단되었습니다.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        log.info("datagen {} {} rows, {} ms", table, count, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void writeChunks(String sql, long count, long chunks, long stream, DataGenSpec spec, RowBinder binder,
+                             AtomicLong nextChunk, AtomicBoolean failed, Runnable chunkDone) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            connection.setAutoCommit(false);
+            try {
+                long chunk;
+                while (!failed.get() && (chunk = nextChunk.getAndIncrement()) < chunks) {
+                    SplittableRandom random = random(spec.getSeed(), stream, chunk);
+                    long from = chunk * CHUNK_ROWS;
+                    long to = Math.min(count, from + CHUNK_ROWS);
+                    for (long i = from; i < to; i++) {
+                        binder.bind(ps, i, random);
+                        ps.addBatch();
+                        if ((i - from + 1) % spec.getBatchSize() == 0) {
+                            ps.executeBatch();
+                        }
+                    }
+                    ps.executeBatch();
+                    connection.commit();
+                    chunkDone.run();
+                }
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            DataAccessException translated = jdbcTemplate.getExceptionTranslator().translate("datagen", sql, e);
+            throw translated != null ? translated : new UncategorizedSQLException("datagen", sql, e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowBinder {
+        void bind(PreparedStatement ps, long index, SplittableRandom random) throws SQLException;
+    }
+}
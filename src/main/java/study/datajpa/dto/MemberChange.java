@@ -0,0 +1,27 @@
+package study.datajpa.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 변경 피드 한 건. DELETE 는 id 와 삭제 시각만 채운다.
+ */
+@Getter
+@AllArgsConstructor
+public class MemberChange {
+
+    public enum Type {UPSERT, DELETE}
+
+    private final Type type;
+    private final Long id;
+    private final String username;
+    private final Integer age;
+    private final Long teamId;
+    private final LocalDateTime modifiedAt;
+
+    public static MemberChange deleted(Long id, LocalDateTime deletedAt) {
+        return new MemberChange(Type.DELETE, id, null, null, null, deletedAt);
+    }
+}
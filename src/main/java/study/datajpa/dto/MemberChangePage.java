@@ -0,0 +1,18 @@
+package study.datajpa.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * next 를 다음 요청의 since 로 넘기면 이어서 받는다. 바뀐 것이 없으면 next 는 since 와 같다.
+ */
+@Getter
+@AllArgsConstructor
+public class MemberChangePage {
+
+    private final List<MemberChange> changes;
+    private final String next;
+    private final boolean hasMore;
+}
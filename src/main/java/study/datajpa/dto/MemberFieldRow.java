@@ -0,0 +1,46 @@
+package study.datajpa.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+
+/**
+ * ?fields= 조회 결과 한 행. 조회한 컬럼 값을 맵으로 옮기지 않고 그대로 JSON 으로 쓴다.
+ */
+public class MemberFieldRow implements JsonSerializable {
+
+    private final String[] names;
+    private final Object[] values;
+
+    public MemberFieldRow(String[] names, Object[] values) {
+        this.names = names;
+        this.values = values;
+    }
+
+    public Object get(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return values[i];
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        gen.writeStartObject();
+        for (int i = 0; i < names.length; i++) {
+            gen.writeFieldName(names[i]);
+            serializers.defaultSerializeValue(values[i], gen);
+        }
+        gen.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer) throws IOException {
+        serialize(gen, serializers);
+    }
+}
@@ -0,0 +1,51 @@
+package study.datajpa.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.data.domain.Sort;
+
+import java.util.Comparator;
+import java.util.function.Function;
+
+/**
+ * member 테이블 한 행 (R2DBC / 샤드 / 아카이브 조회용, 엔티티 아님)
+ */
+@Data
+@AllArgsConstructor
+public class MemberRow {
+
+    private Long id;
+    private String username;
+    private int age;
+    private Long teamId;
+
+    /**
+     * 여러 곳(샤드, 아카이브)에서 읽은 정렬된 목록을 병합할 때 쓰는 비교자. id 가 정렬 조건에 없으면 id 로 마무리한다.
+     * H2 는 null 을 가장 작은 값으로 정렬한다 (asc: 앞, desc: 뒤)
+     */
+    public static Comparator<MemberRow> comparator(Sort sort) {
+        Comparator<MemberRow> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<MemberRow> next = switch (order.getProperty()) {
+                case "id" -> nullsFirst(MemberRow::getId);
+                case "username" -> nullsFirst(MemberRow::getUsername);
+                case "age" -> nullsFirst(MemberRow::getAge);
+                case "teamId" -> nullsFirst(MemberRow::getTeamId);
+                default -> throw new IllegalArgumentException("정렬할 수 없는 속성입니다. property=" + order.getProperty());
+            };
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        Comparator<MemberRow> byId = Comparator.comparing(MemberRow::getId);
+        if (comparator == null) {
+            return byId;
+        }
+        return sort.getOrderFor("id") == null ? comparator.thenComparing(byId) : comparator;
+    }
+
+    private static <T extends Comparable<? super T>> Comparator<MemberRow> nullsFirst(Function<MemberRow, T> key) {
+        return Comparator.comparing(key, Comparator.nullsFirst(Comparator.naturalOrder()));
+    }
+}
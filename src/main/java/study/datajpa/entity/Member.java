@@ -7,6 +7,12 @@ import lombok.*;
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id","username","age"})
+@Table(indexes = {
+        @Index(name = "idx_member_username", columnList = "username"),
+        @Index(name = "idx_member_age_username", columnList = "age, username"),
+        @Index(name = "idx_member_team_id", columnList = "team_id"),
+        @Index(name = "idx_member_last_modified", columnList = "last_modified_date, member_id")
+})
 @NamedQuery(
         name = "Member.findByUsername",
         query = "select m from Member m where m.username = :username"
@@ -0,0 +1,30 @@
+package study.datajpa.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 삭제된 회원 기록 (변경 피드용). 회원 id 는 재사용되지 않으므로 회원 id 를 그대로 키로 쓴다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Table(indexes = @Index(name = "idx_member_tombstone_deleted", columnList = "deleted_date, member_id"))
+public class MemberTombstone {
+
+    @Id
+    @Column(name = "member_id")
+    private Long memberId;
+
+    @Column(nullable = false)
+    private LocalDateTime deletedDate;
+
+    public MemberTombstone(Long memberId, LocalDateTime deletedDate) {
+        this.memberId = memberId;
+        this.deletedDate = deletedDate;
+    }
+}
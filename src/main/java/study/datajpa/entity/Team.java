@@ -2,6 +2,7 @@ package study.datajpa.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.NaturalId;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -10,11 +11,14 @@ import java.util.List;
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id","name"})
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_team_name", columnNames = "name"))
 public class Team {
 
     @Id @GeneratedValue
     @Column(name = "team_id")
     private Long id;
+
+    @NaturalId(mutable = true)
     private String name;
 
     public Team(String name) {
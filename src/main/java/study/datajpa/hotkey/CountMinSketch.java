@@ -0,0 +1,55 @@
+package study.datajpa.hotkey;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * count-min sketch. 행마다 카운터 하나씩 원자적으로 올리므로 락 없이 여러 스레드가 동시에 기록한다.
+ * 추정값은 실제보다 작지 않고, 폭(width)이 넓을수록 과대 추정이 줄어든다.
+ */
+final class CountMinSketch {
+
+    private final int depth;
+    private final int mask;
+    private final AtomicLongArray counters;
+
+    /**
+     * @param width 2 의 거듭제곱으로 올림한다
+     */
+    CountMinSketch(int depth, int width) {
+        int size = Integer.highestOneBit(Math.max(width - 1, 1)) << 1;
+        this.depth = depth;
+        this.mask = size - 1;
+        this.counters = new AtomicLongArray(depth * size);
+    }
+
+    void add(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int row = 0; row < depth; row++) {
+            counters.incrementAndGet(index(row, h1, h2));
+        }
+    }
+
+    long estimate(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters.get(index(row, h1, h2)));
+        }
+        return min;
+    }
+
+    // 해시 두 개로 행마다 다른 해시를 만든다 (Kirsch-Mitzenmacher)
+    private int index(int row, int h1, int h2) {
+        return row * (mask + 1) + ((h1 + row * h2) & mask);
+    }
+
+    static long hash(Object key) {
+        long h = key.hashCode() * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        h *= 0xD6E8FEB86659FD93L;
+        h ^= h >>> 32;
+        return h;
+    }
+}
@@ -0,0 +1,15 @@
+package study.datajpa.hotkey;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 윈도우 안의 추정 접근 수
+ */
+@Getter
+@AllArgsConstructor
+public class HotKey {
+
+    private final String key;
+    private final long count;
+}
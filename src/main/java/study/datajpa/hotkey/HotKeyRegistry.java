@@ -0,0 +1,59 @@
+package study.datajpa.hotkey;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * 조회 key 별 접근 빈도 추적기 모음. hotkey.enabled=false 면 기록하지 않는다.
+ */
+@Component
+public class HotKeyRegistry {
+
+    public static final String MEMBER_ID = "member.id";
+    public static final String MEMBER_USERNAME = "member.username";
+    public static final String TEAM_ID = "team.id";
+    public static final String TEAM_NAME = "team.name";
+
+    private final boolean enabled;
+    private final Map<String, HotKeyTracker> trackers = new LinkedHashMap<>();
+
+    public HotKeyRegistry(@Value("${hotkey.enabled:true}") boolean enabled,
+                          @Value("${hotkey.window:PT1M}") Duration window,
+                          @Value("${hotkey.buckets:6}") int buckets,
+                          @Value("${hotkey.sketch-depth:4}") int depth,
+                          @Value("${hotkey.sketch-width:4096}") int width,
+                          @Value("${hotkey.candidates:1024}") int candidates) {
+        this.enabled = enabled;
+        for (String name : List.of(MEMBER_ID, MEMBER_USERNAME, TEAM_ID, TEAM_NAME)) {
+            trackers.put(name, new HotKeyTracker(name, window, buckets, depth, width, candidates));
+        }
+    }
+
+    public void record(String name, Object key) {
+        if (enabled) {
+            trackers.get(name).record(key);
+        }
+    }
+
+    public Set<String> names() {
+        return Collections.unmodifiableSet(trackers.keySet());
+    }
+
+    /**
+     * @return 없는 이름이면 empty
+     */
+    public Optional<HotKeyReport> report(String name, int k, Collection<Integer> cacheSizes) {
+        HotKeyTracker tracker = trackers.get(name);
+        if (tracker == null) {
+            return Optional.empty();
+        }
+        Map<Integer, Double> hitRatio = new TreeMap<>();
+        for (Integer cacheSize : cacheSizes) {
+            hitRatio.put(cacheSize, tracker.hitRatio(cacheSize));
+        }
+        return Optional.of(new HotKeyReport(name, tracker.getWindow().toSeconds(), tracker.total(), tracker.top(k), hitRatio));
+    }
+}
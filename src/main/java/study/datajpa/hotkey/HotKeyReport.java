@@ -0,0 +1,21 @@
+package study.datajpa.hotkey;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * hitRatio 는 캐시 크기 -> 추정 적중률
+ */
+@Getter
+@AllArgsConstructor
+public class HotKeyReport {
+
+    private final String name;
+    private final long windowSeconds;
+    private final long total;
+    private final List<HotKey> top;
+    private final Map<Integer, Double> hitRatio;
+}
@@ -0,0 +1,43 @@
+package study.datajpa.hotkey;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+import study.datajpa.repository.MemberRepository;
+
+/**
+ * MemberRepository 프록시에 findById / findByUsername 의 인자를 기록하는 인터셉터를 붙인다.
+ * 스프링 데이터의 DomainClassConverter 도 findById 로 조회하므로 경로 변수 변환도 함께 잡힌다.
+ * (MemberLookup 은 findMemberDto* 를 쓰고 username 은 자체적으로 기록한다. /members/{id}, /members2/{id} 의 id 는 MemberResponseCacheFilter 가 기록한다)
+ */
+@Component
+public class HotKeyRepositoryPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<HotKeyRegistry> registry;
+
+    public HotKeyRepositoryPostProcessor(ObjectProvider<HotKeyRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean && MemberRepository.class.equals(factoryBean.getObjectType())) {
+            MethodInterceptor interceptor = invocation -> {
+                String tracker = switch (invocation.getMethod().getName()) {
+                    case "findById" -> HotKeyRegistry.MEMBER_ID;
+                    case "findByUsername" -> HotKeyRegistry.MEMBER_USERNAME;
+                    default -> null;
+                };
+                if (tracker != null && invocation.getArguments().length == 1) {
+                    registry.getObject().record(tracker, invocation.getArguments()[0]);
+                }
+                return invocation.proceed();
+            };
+            factoryBean.addRepositoryFactoryCustomizer(factory ->
+                    factory.addRepositoryProxyPostProcessor((proxyFactory, information) -> proxyFactory.addAdvice(interceptor)));
+        }
+        return bean;
+    }
+}
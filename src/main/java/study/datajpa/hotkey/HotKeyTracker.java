@@ -0,0 +1,218 @@
+package study.datajpa.hotkey;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 슬라이딩 윈도우 위의 접근 빈도 추적.
+ * 윈도우를 buckets 개의 구간으로 나눠 구간마다 count-min sketch 를 두고, 오래된 구간은 새 구간으로 바꿔 끼운다.
+ * <p>
+ * top-K 후보는 key 만 들고 있는 집합이다. 집합이 capacity 의 두 배를 넘으면 한 스레드가 윈도우 추정값으로
+ * 상위 capacity 개만 남기고, 남은 것 중 가장 작은 추정값을 새 후보의 입장 기준으로 삼는다.
+ * 기록하는 쪽은 원자 연산과 ConcurrentHashMap 만 쓰고 기다리지 않는다.
+ */
+public class HotKeyTracker {
+
+    private final String name;
+    private final Duration window;
+    private final long bucketMillis;
+    private final int depth;
+    private final int width;
+    private final int capacity;
+    private final LongSupplier clock;
+
+    private final AtomicReferenceArray<Bucket> buckets;
+    private final Set<Object> candidates = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean pruning = new AtomicBoolean();
+    private volatile long admission;
+
+    public HotKeyTracker(String name, Duration window, int buckets, int depth, int width, int capacity) {
+        this(name, window, buckets, depth, width, capacity, System::currentTimeMillis);
+    }
+
+    HotKeyTracker(String name, Duration window, int buckets, int depth, int width, int capacity, LongSupplier clock) {
+        this.name = name;
+        this.window = window;
+        this.bucketMillis = Math.max(1, window.toMillis() / buckets);
+        this.depth = depth;
+        this.width = width;
+        this.capacity = capacity;
+        this.clock = clock;
+        this.buckets = new AtomicReferenceArray<>(buckets);
+        for (int i = 0; i < buckets; i++) {
+            this.buckets.set(i, new Bucket(Long.MIN_VALUE, 1, 1));
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public void record(Object key) {
+        if (key == null) {
+            return;
+        }
+        long hash = CountMinSketch.hash(key);
+        Bucket bucket = current();
+        bucket.sketch.add(hash);
+        bucket.total.increment();
+
+        if (candidates.contains(key)) {
+            return;
+        }
+        if (candidates.size() < capacity || estimate(hash) >= admission) {
+            candidates.add(key);
+            if (candidates.size() > capacity * 2) {
+                prune();
+            }
+        }
+    }
+
+    public long estimate(Object key) {
+        return estimate(CountMinSketch.hash(key));
+    }
+
+    /**
+     * 윈도우 안의 전체 접근 수
+     */
+    public long total() {
+        long epoch = epoch();
+        long total = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (live(bucket, epoch)) {
+                total += bucket.total.sum();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 추정 접근 수가 큰 순서로 k 개. 후보 집합(capacity) 안에서만 고른다.
+     */
+    public List<HotKey> top(int k) {
+        List<Ranked> ranked = rank(k);
+        List<HotKey> hot = new ArrayList<>(ranked.size());
+        for (Ranked r : ranked) {
+            hot.add(new HotKey(String.valueOf(r.key), r.count));
+        }
+        return hot;
+    }
+
+    /**
+     * 가장 자주 쓰인 cacheSize 개를 들고 있는 캐시가 윈도우 동안 얻었을 적중률 추정.
+     * count-min 추정은 과대 추정 쪽이고, cacheSize 가 후보 수보다 크면 후보만으로 계산하므로 그만큼 작게 나온다.
+     */
+    public double hitRatio(int cacheSize) {
+        long total = total();
+        if (total == 0) {
+            return 0;
+        }
+        long hits = 0;
+        for (HotKey key : top(cacheSize)) {
+            hits += key.getCount();
+        }
+        return Math.min(1.0, (double) hits / total);
+    }
+
+    private List<Ranked> rank(int k) {
+        List<Ranked> ranked = new ArrayList<>(candidates.size());
+        for (Object key : candidates) {
+            long count = estimate(key);
+            if (count > 0) {
+                ranked.add(new Ranked(key, count));
+            }
+        }
+        ranked.sort(Comparator.comparingLong((Ranked r) -> r.count).reversed()
+                .thenComparing(r -> String.valueOf(r.key)));
+        return ranked.size() > k ? new ArrayList<>(ranked.subList(0, k)) : ranked;
+    }
+
+    private long estimate(long hash) {
+        long epoch = epoch();
+        long count = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (live(bucket, epoch)) {
+                count += bucket.sketch.estimate(hash);
+            }
+        }
+        return count;
+    }
+
+    private Bucket current() {
+        long epoch = epoch();
+        int slot = (int) (epoch % buckets.length());
+        Bucket bucket = buckets.get(slot);
+        while (bucket.epoch != epoch) {
+            if (bucket.epoch > epoch) {
+                // 시계가 뒤로 갔거나 다른 스레드가 이미 다음 구간으로 넘겼다
+                return bucket;
+            }
+            Bucket next = new Bucket(epoch, depth, width);
+            if (buckets.compareAndSet(slot, bucket, next)) {
+                // 윈도우가 밀렸으니 입장 기준도 다시 잡는다
+                admission = 0;
+                return next;
+            }
+            bucket = buckets.get(slot);
+        }
+        return bucket;
+    }
+
+    private void prune() {
+        if (!pruning.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<Ranked> kept = rank(capacity);
+            Set<Object> keep = new HashSet<>(kept.size() * 2);
+            for (Ranked r : kept) {
+                keep.add(r.key);
+            }
+            // 문자열이 아니라 key 자체로 비교한다 (1L 과 "1" 은 다른 key)
+            candidates.removeIf(key -> !keep.contains(key));
+            admission = kept.size() < capacity ? 0 : kept.get(kept.size() - 1).count;
+        } finally {
+            pruning.set(false);
+        }
+    }
+
+    private long epoch() {
+        return clock.getAsLong() / bucketMillis;
+    }
+
+    private boolean live(Bucket bucket, long epoch) {
+        return bucket.epoch > epoch - buckets.length() && bucket.epoch <= epoch;
+    }
+
+    private static final class Ranked {
+        private final Object key;
+        private final long count;
+
+        Ranked(Object key, long count) {
+            this.key = key;
+            this.count = count;
+        }
+    }
+
+    private static final class Bucket {
+        private final long epoch;
+        private final CountMinSketch sketch;
+        private final LongAdder total = new LongAdder();
+
+        Bucket(long epoch, int depth, int width) {
+            this.epoch = epoch;
+            this.sketch = new CountMinSketch(depth, width);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package study.datajpa.jfr;
+
+import jdk.jfr.*;
+
+@Name("study.datajpa.HibernateFlush")
+@Label("Hibernate Flush")
+@Category({"Data JPA", "Hibernate"})
+@Description("영속성 컨텍스트 flush")
+@StackTrace(false)
+class HibernateFlushEvent extends Event {
+
+    @Label("Auto Flush")
+    @Description("쿼리 전에 일어난 자동 flush")
+    boolean auto;
+
+    @Label("Entities")
+    @Description("flush 가 검사한 엔티티 수")
+    int entityCount;
+
+    @Label("Collections")
+    int collectionCount;
+
+    @Label("Dirty Entities")
+    int dirtyCount;
+}
@@ -0,0 +1,176 @@
+package study.datajpa.jfr;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Hibernate 이벤트 리스너로 flush 와 지연 로딩 초기화를 JFR 이벤트로 남긴다.
+ * 기본 리스너 앞(prepend)에서 이벤트를 시작하고 뒤(append)에서 끝낸다.
+ * <ul>
+ *     <li>FLUSH / AUTO_FLUSH: HibernateFlushEvent, 더티 엔티티 수는 FLUSH_ENTITY 에서 센다</li>
+ *     <li>LOAD(IMMEDIATE_LOAD, 프록시 초기화) / INIT_COLLECTION: LazyInitializationEvent</li>
+ *     <li>PRE_LOAD ~ POST_LOAD(바이트코드 향상 프록시 초기화): LazyInitializationEvent</li>
+ * </ul>
+ * 바이트코드 향상을 켜면 지연 to-one(Member.team)은 HibernateProxy 대신 초기화되지 않은 엔티티 인스턴스가 되고,
+ * 초기화할 때 LOAD 이벤트 없이 로더를 바로 부른다. 그래서 PRE_LOAD 에 들어온 엔티티가 아직 초기화되지 않았으면
+ * 향상된 프록시의 초기화로 보고 POST_LOAD 에서 끝낸다. 이 경우 시간은 select 결과를 받은 뒤부터라서 SQL 실행 시간은 빠진다.
+ * 기록 중이 아니면 스레드 로컬이 비어 있어서 엔티티마다 스레드 로컬 조회 한 번만 더해진다.
+ */
+@Component
+public class JfrHibernateListeners {
+
+    private static final ThreadLocal<HibernateFlushEvent> FLUSH = new ThreadLocal<>();
+    private static final ThreadLocal<Deque<LazyInitializationEvent>> LAZY = ThreadLocal.withInitial(ArrayDeque::new);
+    // 기록 중이 아닐 때 스택 짝을 맞추는 자리 표시
+    private static final LazyInitializationEvent NOT_RECORDED = new LazyInitializationEvent();
+    // 초기화 중인 향상된 프록시 -> 이벤트 (기록 중일 때만 들어간다)
+    private static final ThreadLocal<Map<Object, LazyInitializationEvent>> ENHANCED = ThreadLocal.withInitial(IdentityHashMap::new);
+
+    private final EntityManagerFactory emf;
+
+    public JfrHibernateListeners(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+
+        registry.prependListeners(EventType.FLUSH, (FlushEventListener) event -> beginFlush(false));
+        registry.appendListeners(EventType.FLUSH, (FlushEventListener) JfrHibernateListeners::endFlush);
+        registry.prependListeners(EventType.AUTO_FLUSH, (AutoFlushEventListener) event -> beginFlush(true));
+        registry.appendListeners(EventType.AUTO_FLUSH, (AutoFlushEventListener) JfrHibernateListeners::endFlush);
+        registry.appendListeners(EventType.FLUSH_ENTITY, (FlushEntityEventListener) JfrHibernateListeners::flushEntity);
+
+        registry.prependListeners(EventType.LOAD, (LoadEventListener) (event, loadType) -> {
+            if (loadType == LoadEventListener.IMMEDIATE_LOAD) {
+                beginLazy(event.getEntityClassName() + " (proxy)", event.getEntityId());
+            }
+        });
+        registry.appendListeners(EventType.LOAD, (LoadEventListener) (event, loadType) -> {
+            if (loadType == LoadEventListener.IMMEDIATE_LOAD) {
+                endLazy();
+            }
+        });
+        registry.appendListeners(EventType.PRE_LOAD, (PreLoadEventListener) event -> {
+            if (!Hibernate.isInitialized(event.getEntity())) {
+                beginEnhanced(event.getEntity(), event.getPersister().getEntityName(), event.getId());
+            }
+        });
+        registry.appendListeners(EventType.POST_LOAD, (PostLoadEventListener) event -> endEnhanced(event.getEntity()));
+        registry.prependListeners(EventType.INIT_COLLECTION, (InitializeCollectionEventListener) event ->
+                beginLazy(event.getCollection().getRole(), event.getCollection().getKey()));
+        registry.appendListeners(EventType.INIT_COLLECTION, (InitializeCollectionEventListener) event -> endLazy());
+    }
+
+    private static void beginFlush(boolean auto) {
+        HibernateFlushEvent event = new HibernateFlushEvent();
+        if (event.isEnabled()) {
+            event.auto = auto;
+            event.begin();
+            FLUSH.set(event);
+        } else {
+            FLUSH.remove();
+        }
+    }
+
+    private static void flushEntity(FlushEntityEvent event) {
+        HibernateFlushEvent flush = FLUSH.get();
+        if (flush == null) {
+            return;
+        }
+        int[] dirty = event.getDirtyProperties();
+        if ((dirty != null && dirty.length > 0) || event.hasDirtyCollection()) {
+            flush.dirtyCount++;
+        }
+    }
+
+    private static void endFlush(FlushEvent event) {
+        HibernateFlushEvent flush = FLUSH.get();
+        if (flush == null) {
+            return;
+        }
+        FLUSH.remove();
+        flush.end();
+        if (flush.shouldCommit()) {
+            flush.entityCount = event.getNumberOfEntitiesProcessed();
+            flush.collectionCount = event.getNumberOfCollectionsProcessed();
+            flush.commit();
+        }
+    }
+
+    private static void beginLazy(String role, Object key) {
+        Deque<LazyInitializationEvent> stack = LAZY.get();
+        if (stack.size() > 64) {
+            // 로딩이 예외로 끝나면 append 리스너가 불리지 않아 짝이 남는다
+            stack.clear();
+        }
+        LazyInitializationEvent event = new LazyInitializationEvent();
+        if (event.isEnabled()) {
+            event.role = role;
+            event.key = String.valueOf(key);
+            event.begin();
+            stack.push(event);
+        } else {
+            stack.push(NOT_RECORDED);
+        }
+    }
+
+    private static void beginEnhanced(Object entity, String entityName, Object id) {
+        LazyInitializationEvent event = new LazyInitializationEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        Map<Object, LazyInitializationEvent> loading = ENHANCED.get();
+        if (loading.size() > 64) {
+            // 로딩이 예외로 끝나면 POST_LOAD 가 불리지 않아 남는다
+            loading.clear();
+        }
+        event.role = entityName + " (proxy)";
+        event.key = String.valueOf(id);
+        event.begin();
+        loading.put(entity, event);
+    }
+
+    private static void endEnhanced(Object entity) {
+        Map<Object, LazyInitializationEvent> loading = ENHANCED.get();
+        if (loading.isEmpty()) {
+            return;
+        }
+        LazyInitializationEvent event = loading.remove(entity);
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.commit();
+        }
+    }
+
+    private static void endLazy() {
+        Deque<LazyInitializationEvent> stack = LAZY.get();
+        if (stack.isEmpty()) {
+            return;
+        }
+        LazyInitializationEvent event = stack.pop();
+        if (event == NOT_RECORDED) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.commit();
+        }
+    }
+}
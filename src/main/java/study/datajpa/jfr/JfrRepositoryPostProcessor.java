@@ -0,0 +1,101 @@
+package study.datajpa.jfr;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.stream.BaseStream;
+
+/**
+ * 모든 스프링 데이터 리포지토리 프록시에 RepositoryInvocationEvent 를 남기는 인터셉터를 붙인다.
+ * 기록 중이 아니면 이벤트 객체 생성과 isEnabled 확인만 하고, 인자 모양과 건수는 커밋할 이벤트에 대해서만 계산한다.
+ */
+@Component
+public class JfrRepositoryPostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            String repository = factoryBean.getObjectType().getSimpleName();
+            MethodInterceptor interceptor = invocation -> invoke(repository, invocation);
+            factoryBean.addRepositoryFactoryCustomizer(factory ->
+                    factory.addRepositoryProxyPostProcessor((proxyFactory, information) -> proxyFactory.addAdvice(interceptor)));
+        }
+        return bean;
+    }
+
+    private static Object invoke(String repository, MethodInvocation invocation) throws Throwable {
+        RepositoryInvocationEvent event = new RepositoryInvocationEvent();
+        if (!event.isEnabled()) {
+            return invocation.proceed();
+        }
+        event.begin();
+        Object result = null;
+        Throwable failure = null;
+        try {
+            result = invocation.proceed();
+            return result;
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.repository = repository;
+                event.method = invocation.getMethod().getName();
+                event.arguments = shape(invocation.getArguments());
+                event.rows = failure == null ? rows(result) : -1;
+                event.failure = failure == null ? null : failure.getClass().getName();
+                event.commit();
+            }
+        }
+    }
+
+    static String shape(Object[] arguments) {
+        StringJoiner shape = new StringJoiner(", ");
+        for (Object argument : arguments) {
+            if (argument == null) {
+                shape.add("null");
+            } else if (argument instanceof Collection<?> collection) {
+                shape.add(argument.getClass().getSimpleName() + "[" + collection.size() + "]");
+            } else if (argument instanceof Pageable pageable) {
+                shape.add(pageable.isPaged()
+                        ? "Pageable[page=" + pageable.getPageNumber() + ", size=" + pageable.getPageSize() + "]"
+                        : "Pageable[unpaged]");
+            } else if (argument instanceof Class<?> type) {
+                shape.add("Class[" + type.getSimpleName() + "]");
+            } else {
+                shape.add(argument.getClass().getSimpleName());
+            }
+        }
+        return shape.toString();
+    }
+
+    static long rows(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Map<?, ?> || result instanceof Number || result instanceof Boolean
+                || result instanceof Iterable<?> || result instanceof BaseStream<?, ?>) {
+            return -1;
+        }
+        return 1;
+    }
+}
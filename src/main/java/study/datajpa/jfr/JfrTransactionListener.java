@@ -0,0 +1,74 @@
+package study.datajpa.jfr;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 트랜잭션 시작/커밋/롤백에 TransactionEvent, TransactionCommitEvent 를 남긴다.
+ * 스프링 부트가 TransactionExecutionListener 빈을 트랜잭션 매니저에 등록한다.
+ * 시작과 끝은 같은 TransactionExecution(트랜잭션 상태 객체)으로 불리므로 그 객체로 짝을 맞춘다. (equals 를 재정의하지 않음)
+ */
+@Component
+public class JfrTransactionListener implements TransactionExecutionListener {
+
+    private final Map<TransactionExecution, TransactionEvent> transactions = new ConcurrentHashMap<>();
+    private final Map<TransactionExecution, TransactionCommitEvent> commits = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+        TransactionEvent event = new TransactionEvent();
+        if (beginFailure == null && event.isEnabled()) {
+            event.name = transaction.getTransactionName();
+            event.readOnly = transaction.isReadOnly();
+            event.begin();
+            transactions.put(transaction, event);
+        }
+    }
+
+    @Override
+    public void beforeCommit(TransactionExecution transaction) {
+        TransactionCommitEvent event = new TransactionCommitEvent();
+        if (event.isEnabled()) {
+            event.name = transaction.getTransactionName();
+            event.begin();
+            commits.put(transaction, event);
+        }
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        TransactionCommitEvent event = commits.remove(transaction);
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.failure = commitFailure == null ? null : commitFailure.getClass().getName();
+                event.commit();
+            }
+        }
+        complete(transaction, commitFailure == null ? "COMMITTED" : "COMMIT_FAILED");
+    }
+
+    @Override
+    public void afterRollback(TransactionExecution transaction, Throwable rollbackFailure) {
+        complete(transaction, rollbackFailure == null ? "ROLLED_BACK" : "ROLLBACK_FAILED");
+    }
+
+    private void complete(TransactionExecution transaction, String outcome) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        TransactionEvent event = transactions.remove(transaction);
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package study.datajpa.jfr;
+
+import jdk.jfr.*;
+
+@Name("study.datajpa.LazyInitialization")
+@Label("Lazy Initialization")
+@Category({"Data JPA", "Hibernate"})
+@Description("지연 로딩 프록시/컬렉션 초기화 (Member.team 은 Team 프록시, Team.members 는 컬렉션)")
+@StackTrace(true)
+class LazyInitializationEvent extends Event {
+
+    @Label("Role")
+    @Description("컬렉션 role 또는 프록시 엔티티 이름")
+    String role;
+
+    @Label("Key")
+    String key;
+}
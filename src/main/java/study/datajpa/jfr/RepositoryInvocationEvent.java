@@ -0,0 +1,28 @@
+package study.datajpa.jfr;
+
+import jdk.jfr.*;
+
+@Name("study.datajpa.RepositoryInvocation")
+@Label("Repository Invocation")
+@Category({"Data JPA", "Repository"})
+@Description("스프링 데이터 리포지토리 메서드 호출")
+@StackTrace(false)
+class RepositoryInvocationEvent extends Event {
+
+    @Label("Repository")
+    String repository;
+
+    @Label("Method")
+    String method;
+
+    @Label("Arguments")
+    @Description("인자 값이 아닌 모양 (타입, 컬렉션 크기, 페이지)")
+    String arguments;
+
+    @Label("Rows")
+    @Description("돌려준 건수, 셀 수 없으면 -1")
+    long rows;
+
+    @Label("Failure")
+    String failure;
+}
@@ -0,0 +1,17 @@
+package study.datajpa.jfr;
+
+import jdk.jfr.*;
+
+@Name("study.datajpa.TransactionCommit")
+@Label("Transaction Commit")
+@Category({"Data JPA", "Transaction"})
+@Description("커밋 (flush + DB commit) 에 걸린 시간")
+@StackTrace(false)
+class TransactionCommitEvent extends Event {
+
+    @Label("Name")
+    String name;
+
+    @Label("Failure")
+    String failure;
+}
@@ -0,0 +1,20 @@
+package study.datajpa.jfr;
+
+import jdk.jfr.*;
+
+@Name("study.datajpa.Transaction")
+@Label("Transaction")
+@Category({"Data JPA", "Transaction"})
+@Description("트랜잭션 시작부터 커밋/롤백이 끝날 때까지")
+@StackTrace(false)
+class TransactionEvent extends Event {
+
+    @Label("Name")
+    String name;
+
+    @Label("Read Only")
+    boolean readOnly;
+
+    @Label("Outcome")
+    String outcome;
+}
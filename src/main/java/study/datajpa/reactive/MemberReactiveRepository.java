@@ -0,0 +1,46 @@
+package study.datajpa.reactive;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberRow;
+
+/**
+ * MemberRepository 조회 메서드의 R2DBC 버전.
+ * 결과를 모아서 돌려주지 않고 구독자가 요청(request)한 만큼 행을 흘려보낸다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MemberReactiveRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public Flux<MemberRow> findAll() {
+        return databaseClient.sql("select member_id, username, age, team_id from member order by member_id")
+                .map(MemberReactiveRepository::toMemberRow)
+                .all();
+    }
+
+    public Flux<MemberRow> findByUsername(String username) {
+        return databaseClient.sql("select member_id, username, age, team_id from member where username = :username")
+                .bind("username", username)
+                .map(MemberReactiveRepository::toMemberRow)
+                .all();
+    }
+
+    // MemberRepository.findMemberDto 와 같은 조건 (팀이 있는 회원만)
+    public Flux<MemberDto> findMemberDto() {
+        return databaseClient.sql("select m.member_id, m.username, t.name from member m join team t on t.team_id = m.team_id")
+                .map(row -> new MemberDto(row.get("member_id", Long.class), row.get("username", String.class),
+                        row.get("name", String.class)))
+                .all();
+    }
+
+    private static MemberRow toMemberRow(Readable row) {
+        return new MemberRow(row.get("member_id", Long.class), row.get("username", String.class),
+                row.get("age", Integer.class), row.get("team_id", Long.class));
+    }
+}
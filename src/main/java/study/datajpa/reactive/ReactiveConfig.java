@@ -0,0 +1,56 @@
+package study.datajpa.reactive;
+
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * 조회 전용 R2DBC 설정. JPA 와 같은 H2 데이터베이스를 연다(spring.datasource.url 의 jdbc:h2: 뒷부분 사용).
+ * 쓰기는 계속 JPA 로 하므로 R2DBC 트랜잭션 매니저는 만들지 않는다(application.yml 에서 자동 설정 제외).
+ * <p>
+ * 커넥션 풀은 빈으로 내보내지 않는다. ConnectionFactory 빈이 있으면 DataSourceAutoConfiguration 이 빠져서
+ * JPA(DataSource, EntityManagerFactory)가 뜨지 않는다. 같은 이유로 R2dbcAutoConfiguration 도 제외한다.
+ */
+@Configuration
+public class ReactiveConfig {
+
+    private static final String H2_JDBC_PREFIX = "jdbc:h2:";
+
+    private ConnectionPool pool;
+
+    @Bean
+    public DatabaseClient databaseClient(DataSourceProperties dataSourceProperties,
+                                         @Value("${reactive.pool.max-size:20}") int maxSize) {
+        String url = dataSourceProperties.determineUrl();
+        if (url == null || !url.startsWith(H2_JDBC_PREFIX)) {
+            throw new IllegalStateException("R2DBC 조회는 H2 데이터베이스만 지원합니다: " + url);
+        }
+
+        H2ConnectionConfiguration.Builder configuration = H2ConnectionConfiguration.builder()
+                .url(url.substring(H2_JDBC_PREFIX.length()))
+                .username(dataSourceProperties.determineUsername());
+        String password = dataSourceProperties.determinePassword();
+        if (password != null) {
+            configuration.password(password);
+        }
+
+        pool = new ConnectionPool(ConnectionPoolConfiguration.builder(new H2ConnectionFactory(configuration.build()))
+                .maxSize(maxSize)
+                .build());
+        return DatabaseClient.create(pool);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (pool != null) {
+            pool.dispose();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.AttributeNode;
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Subgraph;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.PluralAttribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.hibernate.Session;
+import org.springframework.util.StringUtils;
+import study.datajpa.entity.Member;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 요청마다 고르는 회원 연관관계 로딩 방식.
+ * <ul>
+ *     <li>{@code team}, {@code team,team.members} : 즉석 fetch graph</li>
+ *     <li>{@code graph:Member.all} : 이름 있는 엔티티 그래프</li>
+ *     <li>{@code batch}, {@code batch:50} : 세션 단위 batch fetching</li>
+ *     <li>{@code subselect} : 세션 단위 subselect fetching (컬렉션)</li>
+ *     <li>{@code lazy} : 매핑 그대로</li>
+ * </ul>
+ * 엔티티 그래프는 MemberRepository 의 쿼리 메서드(파생 쿼리, @Query JPQL)와 findAll, findById 같은 CRUD 조회에 적용된다
+ * (FetchPlanRepositoryPostProcessor). 네이티브 쿼리는 batch / subselect 만 적용된다.
+ * 해석할 수 없는 값은 IllegalArgumentException 을 던진다. 속성 / 그래프 이름은 parse 가 아니라 validate 에서 확인한다.
+ */
+public final class FetchPlan {
+
+    public enum Type {LAZY, GRAPH, BATCH, SUBSELECT}
+
+    public static final FetchPlan LAZY = new FetchPlan(Type.LAZY, null, List.of(), 0);
+
+    private static final int DEFAULT_BATCH_SIZE = 100;
+
+    private final Type type;
+    private final String graphName;
+    private final List<String> attributePaths;
+    private final int batchSize;
+
+    private FetchPlan(Type type, String graphName, List<String> attributePaths, int batchSize) {
+        this.type = type;
+        this.graphName = graphName;
+        this.attributePaths = attributePaths;
+        this.batchSize = batchSize;
+    }
+
+    public static FetchPlan graph(String name) {
+        return new FetchPlan(Type.GRAPH, name, List.of(), 0);
+    }
+
+    public static FetchPlan attributes(String... attributePaths) {
+        return new FetchPlan(Type.GRAPH, null, List.of(attributePaths), 0);
+    }
+
+    public static FetchPlan batch(int batchSize) {
+        return new FetchPlan(Type.BATCH, null, List.of(), batchSize);
+    }
+
+    public static FetchPlan subselect() {
+        return new FetchPlan(Type.SUBSELECT, null, List.of(), 0);
+    }
+
+    public static FetchPlan parse(String value) {
+        if (!StringUtils.hasText(value) || value.equals("lazy")) {
+            return LAZY;
+        }
+        if (value.startsWith("graph:")) {
+            return graph(value.substring("graph:".length()));
+        }
+        if (value.equals("batch")) {
+            return batch(DEFAULT_BATCH_SIZE);
+        }
+        if (value.startsWith("batch:")) {
+            int batchSize;
+            try {
+                batchSize = Integer.parseInt(value.substring("batch:".length()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("batch 크기는 숫자여야 합니다. fetch=" + value, e);
+            }
+            if (batchSize < 1) {
+                throw new IllegalArgumentException("batch 크기는 1 이상이어야 합니다. fetch=" + value);
+            }
+            return batch(batchSize);
+        }
+        if (value.equals("subselect")) {
+            return subselect();
+        }
+        return attributes(Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(StringUtils::hasText)
+                .toArray(String[]::new));
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public boolean isGraph() {
+        return type == Type.GRAPH;
+    }
+
+    public boolean appliesTo(Class<?> domainType) {
+        return domainType == Member.class;
+    }
+
+    /**
+     * 그래프의 속성 경로와 이름 있는 그래프가 실제로 있는지 확인한다. 쿼리를 실행할 때가 아니라 요청을 받을 때 거르기 위해 쓴다.
+     *
+     * @throws IllegalArgumentException 없는 속성이나 그래프 이름
+     */
+    public void validate(EntityManager em) {
+        if (graphName != null) {
+            em.getEntityGraph(graphName);
+            return;
+        }
+        for (String path : attributePaths) {
+            ManagedType<?> type = em.getMetamodel().entity(Member.class);
+            for (String name : path.split("\\.")) {
+                if (type == null) {
+                    throw new IllegalArgumentException("연관관계가 아닌 속성 뒤에는 경로를 이을 수 없습니다. fetch=" + path);
+                }
+                Attribute<?, ?> attribute = type.getAttribute(name);
+                jakarta.persistence.metamodel.Type<?> next = attribute instanceof PluralAttribute<?, ?, ?> plural
+                        ? plural.getElementType()
+                        : ((SingularAttribute<?, ?>) attribute).getType();
+                type = next instanceof ManagedType<?> managed ? managed : null;
+            }
+        }
+    }
+
+    /**
+     * fetchgraph 힌트로 넘길 엔티티 그래프. {@code team.members} 같은 경로는 서브그래프로 만든다.
+     */
+    public EntityGraph<?> toEntityGraph(EntityManager em) {
+        if (graphName != null) {
+            return em.getEntityGraph(graphName);
+        }
+        EntityGraph<Member> graph = em.createEntityGraph(Member.class);
+        for (String path : attributePaths) {
+            String[] names = path.split("\\.");
+            if (names.length == 1) {
+                graph.addAttributeNodes(names[0]);
+                continue;
+            }
+            Subgraph<?> subgraph = graph.addSubgraph(names[0]);
+            for (int i = 1; i < names.length - 1; i++) {
+                subgraph = subgraph.addSubgraph(names[i]);
+            }
+            subgraph.addAttributeNodes(names[names.length - 1]);
+        }
+        return graph;
+    }
+
+    /**
+     * 그래프가 가져오는 연관관계 경로. 이름 있는 그래프는 첫 단계 속성만 돌려준다.
+     */
+    public List<String> fetchedPaths(EntityManager em) {
+        if (graphName != null) {
+            return em.getEntityGraph(graphName).getAttributeNodes().stream()
+                    .map(AttributeNode::getAttributeName)
+                    .toList();
+        }
+        return attributePaths;
+    }
+
+    /**
+     * batch / subselect 는 쿼리가 아니라 세션 설정이므로 현재 세션에 적용한다.
+     */
+    public void applyTo(Session session) {
+        if (type == Type.BATCH) {
+            session.setFetchBatchSize(batchSize);
+        } else if (type == Type.SUBSELECT) {
+            session.setSubselectFetchingEnabled(true);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return switch (type) {
+            case LAZY -> "lazy";
+            case GRAPH -> graphName != null ? "graph:" + graphName : String.join(",", attributePaths);
+            case BATCH -> "batch:" + batchSize;
+            case SUBSELECT -> "subselect";
+        };
+    }
+}
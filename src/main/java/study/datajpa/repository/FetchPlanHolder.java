@@ -0,0 +1,37 @@
+package study.datajpa.repository;
+
+import java.util.function.Supplier;
+
+public final class FetchPlanHolder {
+
+    private static final ThreadLocal<FetchPlan> CURRENT = new ThreadLocal<>();
+
+    private FetchPlanHolder() {
+    }
+
+    public static FetchPlan get() {
+        return CURRENT.get();
+    }
+
+    public static void set(FetchPlan plan) {
+        CURRENT.set(plan);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public static <T> T with(FetchPlan plan, Supplier<T> query) {
+        FetchPlan previous = CURRENT.get();
+        CURRENT.set(plan);
+        try {
+            return query.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
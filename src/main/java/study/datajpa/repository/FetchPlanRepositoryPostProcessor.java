@@ -0,0 +1,150 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Query;
+import jakarta.persistence.criteria.CriteriaQuery;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactoryBean;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import study.datajpa.entity.Member;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * MemberRepository 쿼리 메서드가 만드는 JPQL / Criteria 쿼리에 FetchPlanHolder 의 그래프를 fetchgraph 힌트로 건다.
+ * <ul>
+ *     <li>리포지토리 팩토리에 넘기는 EntityManager 를 감싸서 createQuery / createNamedQuery 로 만든 쿼리에 힌트를 붙이고,
+ *     find(Member.class, id) 에는 힌트 맵으로 넘긴다</li>
+ *     <li>Member 를 돌려주는 쿼리 메서드(네이티브, @Modifying 제외)와 CRUD 조회 메서드(findAll, findById 등 find*)를
+ *     실행하는 동안에만 붙이고, 결과 타입이 Member 가 아닌 쿼리(페이지 count 쿼리 등)는 건너뛴다</li>
+ * </ul>
+ * 메서드에 @EntityGraph 가 선언되어 있으면 스프링 데이터가 쿼리를 만든 뒤 거는 선언된 그래프가 우선한다.
+ */
+@Component
+public class FetchPlanRepositoryPostProcessor implements BeanPostProcessor {
+
+    static final String FETCH_GRAPH_HINT = "jakarta.persistence.fetchgraph";
+
+    // 그래프를 걸 쿼리 메서드를 실행 중인지
+    private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+
+    private final ObjectProvider<EntityManagerFactory> emf;
+
+    public FetchPlanRepositoryPostProcessor(ObjectProvider<EntityManagerFactory> emf) {
+        this.emf = emf;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof JpaRepositoryFactoryBean<?, ?, ?> factoryBean && MemberRepository.class.equals(factoryBean.getObjectType())) {
+            factoryBean.setEntityManager(wrap(SharedEntityManagerCreator.createSharedEntityManager(emf.getObject())));
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor((proxyFactory, information) ->
+                    proxyFactory.addAdvice(interceptor(information))));
+        }
+        return bean;
+    }
+
+    private static MethodInterceptor interceptor(RepositoryInformation information) {
+        return invocation -> {
+            Method method = invocation.getMethod();
+            if (FetchPlanHolder.get() == null || !supports(information, method)) {
+                return invocation.proceed();
+            }
+            Boolean previous = ACTIVE.get();
+            ACTIVE.set(Boolean.TRUE);
+            try {
+                return invocation.proceed();
+            } finally {
+                if (previous != null) {
+                    ACTIVE.set(previous);
+                } else {
+                    ACTIVE.remove();
+                }
+            }
+        };
+    }
+
+    private static boolean supports(RepositoryInformation information, Method method) {
+        boolean crudRead = information.isBaseClassMethod(method) && method.getName().startsWith("find");
+        if (!(information.isQueryMethod(method) || crudRead) || method.isAnnotationPresent(Modifying.class)) {
+            return false;
+        }
+        org.springframework.data.jpa.repository.Query query = method.getAnnotation(org.springframework.data.jpa.repository.Query.class);
+        if (query != null && query.nativeQuery()) {
+            return false;
+        }
+        return Member.class.isAssignableFrom(information.getReturnedDomainClass(method));
+    }
+
+    private static EntityManager wrap(EntityManager target) {
+        return (EntityManager) Proxy.newProxyInstance(FetchPlanRepositoryPostProcessor.class.getClassLoader(),
+                ClassUtils.getAllInterfaces(target),
+                (proxy, method, args) -> {
+                    if (isFind(method, args) && Boolean.TRUE.equals(ACTIVE.get())) {
+                        return target.find((Class<?>) args[0], args[1], hints(target, args));
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                    if (result instanceof Query query && isQueryFactory(method) && Boolean.TRUE.equals(ACTIVE.get())) {
+                        apply(target, query, args);
+                    }
+                    return result;
+                });
+    }
+
+    // find(Class, id) / find(Class, id, Map) 만 바꾼다 (잠금 모드를 받는 find 는 그대로)
+    private static boolean isFind(Method method, Object[] args) {
+        if (!method.getName().equals("find") || args == null || !(args[0] instanceof Class<?> type)) {
+            return false;
+        }
+        Class<?>[] parameters = method.getParameterTypes();
+        boolean plain = parameters.length == 2 || (parameters.length == 3 && parameters[2] == Map.class);
+        FetchPlan plan = FetchPlanHolder.get();
+        return plain && plan != null && plan.isGraph() && plan.appliesTo(type);
+    }
+
+    private static Map<String, Object> hints(EntityManager em, Object[] args) {
+        Map<String, Object> hints = new HashMap<>();
+        if (args.length == 3 && args[2] instanceof Map<?, ?> given) {
+            given.forEach((key, value) -> hints.put(String.valueOf(key), value));
+        }
+        hints.put(FETCH_GRAPH_HINT, FetchPlanHolder.get().toEntityGraph(em));
+        return hints;
+    }
+
+    private static boolean isQueryFactory(Method method) {
+        return method.getName().equals("createQuery") || method.getName().equals("createNamedQuery");
+    }
+
+    private static void apply(EntityManager em, Query query, Object[] args) {
+        FetchPlan plan = FetchPlanHolder.get();
+        if (plan == null || !plan.isGraph()) {
+            return;
+        }
+        // 결과 타입을 알 수 있으면 Member 쿼리에만 건다 (JPQL 문자열만 받은 쿼리는 메서드 반환 타입으로 이미 걸렀다)
+        Class<?> resultType = null;
+        if (args.length > 1 && args[1] instanceof Class<?> type) {
+            resultType = type;
+        } else if (args[0] instanceof CriteriaQuery<?> criteriaQuery) {
+            resultType = criteriaQuery.getResultType();
+        }
+        if (resultType == null || plan.appliesTo(resultType)) {
+            query.setHint(FETCH_GRAPH_HINT, plan.toEntityGraph(em));
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberChange;
+import study.datajpa.dto.MemberChangePage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * lastModifiedDate(삭제는 member_tombstone.deletedDate) 와 id 순서의 회원 변경 피드.
+ * 커서는 마지막으로 돌려준 (시각, id) 를 담고, 다음 요청은 그 뒤부터 읽는다.
+ * <p>
+ * 먼저 시작했지만 늦게 커밋된 트랜잭션의 변경이 커서 뒤로 밀려 빠지지 않도록 settle-time 보다 최근 변경은 아직 돌려주지 않는다.
+ * settle-time 은 flush 부터 커밋까지 그보다 짧게 걸리는 트랜잭션만 지켜 준다. 배치나 아카이브처럼 오래 걸리는 트랜잭션이
+ * 커밋하기 전에 커서가 그 변경 시각을 지나가면 그 변경은 피드에서 빠진다. 그런 작업을 돌린다면 settle-time 을 가장 긴 트랜잭션보다 길게 잡는다.
+ * lastModifiedDate 가 없는 행(감사 필드 없이 넣은 행)은 피드에 나오지 않는다.
+ */
+@Component
+public class MemberChangeFeed {
+
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final EntityManager em;
+    private final Duration settleTime;
+    private final Duration tombstoneRetention;
+
+    public MemberChangeFeed(EntityManager em,
+                            @Value("${change-feed.settle-time:2s}") Duration settleTime,
+                            @Value("${change-feed.tombstone-retention:P30D}") Duration tombstoneRetention) {
+        this.em = em;
+        this.settleTime = settleTime;
+        this.tombstoneRetention = tombstoneRetention;
+    }
+
+    /**
+     * @param since 이전 응답의 next, null 이면 처음부터
+     * @throws IllegalArgumentException 커서 형식이 잘못된 경우
+     */
+    @Transactional(readOnly = true)
+    public MemberChangePage changes(String since, int size) {
+        Cursor cursor = since == null ? new Cursor(BEGINNING, 0) : Cursor.decode(since);
+        LocalDateTime until = LocalDateTime.now().minus(settleTime);
+
+        List<MemberChange> changes = new ArrayList<>(size + 1);
+        List<Object[]> members = em.createQuery(
+                        "select m.id, m.username, m.age, t.id, m.lastModifiedDate from Member m left join m.team t" +
+                                " where m.lastModifiedDate >= :time and (m.lastModifiedDate > :time or m.id > :id)" +
+                                " and m.lastModifiedDate < :until" +
+                                " order by m.lastModifiedDate, m.id", Object[].class)
+                .setParameter("time", cursor.time)
+                .setParameter("id", cursor.id)
+                .setParameter("until", until)
+                .setMaxResults(size + 1)
+                .getResultList();
+        for (Object[] row : members) {
+            changes.add(new MemberChange(MemberChange.Type.UPSERT, (Long) row[0], (String) row[1], (Integer) row[2],
+                    (Long) row[3], (LocalDateTime) row[4]));
+        }
+        List<Object[]> tombstones = em.createQuery(
+                        "select d.memberId, d.deletedDate from MemberTombstone d" +
+                                " where d.deletedDate >= :time and (d.deletedDate > :time or d.memberId > :id)" +
+                                " and d.deletedDate < :until" +
+                                " order by d.deletedDate, d.memberId", Object[].class)
+                .setParameter("time", cursor.time)
+                .setParameter("id", cursor.id)
+                .setParameter("until", until)
+                .setMaxResults(size + 1)
+                .getResultList();
+        for (Object[] row : tombstones) {
+            changes.add(MemberChange.deleted((Long) row[0], (LocalDateTime) row[1]));
+        }
+
+        changes.sort(Comparator.comparing(MemberChange::getModifiedAt).thenComparing(MemberChange::getId));
+        boolean hasMore = changes.size() > size;
+        if (hasMore) {
+            changes = new ArrayList<>(changes.subList(0, size));
+        }
+        String next = changes.isEmpty()
+                ? cursor.encode()
+                : new Cursor(changes.get(changes.size() - 1).getModifiedAt(), changes.get(changes.size() - 1).getId()).encode();
+        return new MemberChangePage(changes, next, hasMore);
+    }
+
+    @Scheduled(cron = "${change-feed.tombstone-purge-cron:0 0 4 * * *}")
+    @Transactional
+    public void purgeTombstones() {
+        em.createQuery("delete from MemberTombstone d where d.deletedDate < :before")
+                .setParameter("before", LocalDateTime.now().minus(tombstoneRetention))
+                .executeUpdate();
+    }
+
+    /**
+     * "epoch 마이크로초:id" 를 URL 안전 base64 로 감싼다.
+     */
+    static final class Cursor {
+        private final LocalDateTime time;
+        private final long id;
+
+        Cursor(LocalDateTime time, long id) {
+            this.time = time;
+            this.id = id;
+        }
+
+        String encode() {
+            long micros = time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((micros + ":" + id).getBytes(StandardCharsets.US_ASCII));
+        }
+
+        static Cursor decode(String value) {
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.US_ASCII);
+                int separator = decoded.indexOf(':');
+                long micros = Long.parseLong(decoded.substring(0, separator));
+                long id = Long.parseLong(decoded.substring(separator + 1));
+                LocalDateTime time = LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                        (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+                return new Cursor(time, id);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("잘못된 커서입니다. since=" + value, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package study.datajpa.repository;
+
+import com.querydsl.core.types.Expression;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static study.datajpa.entity.QMember.member;
+import static study.datajpa.entity.QTeam.team;
+
+/**
+ * ?fields= 로 고를 수 있는 회원 컬럼. 고른 컬럼만 select 절에 들어가고, 팀 컬럼이 있을 때만 팀을 조인한다.
+ */
+public enum MemberField {
+
+    ID("id", member.id, false),
+    USERNAME("username", member.username, false),
+    AGE("age", member.age, false),
+    TEAM_NAME("teamName", team.name, true),
+    CREATED_DATE("createdDate", member.createdDate, false),
+    LAST_MODIFIED_DATE("lastModifiedDate", member.lastModifiedDate, false),
+    CREATED_BY("createdBy", member.createdBy, false),
+    LAST_MODIFIED_BY("lastModifiedBy", member.lastModifiedBy, false);
+
+    private final String fieldName;
+    private final Expression<?> expression;
+    private final boolean needsTeam;
+
+    MemberField(String fieldName, Expression<?> expression, boolean needsTeam) {
+        this.fieldName = fieldName;
+        this.expression = expression;
+        this.needsTeam = needsTeam;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    public Expression<?> getExpression() {
+        return expression;
+    }
+
+    public boolean needsTeam() {
+        return needsTeam;
+    }
+
+    public static MemberField of(String fieldName) {
+        for (MemberField field : values()) {
+            if (field.fieldName.equals(fieldName)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("조회할 수 없는 필드입니다. field=" + fieldName);
+    }
+
+    public static List<MemberField> parse(String fields) {
+        List<MemberField> result = new ArrayList<>();
+        for (String fieldName : StringUtils.commaDelimitedListToStringArray(fields)) {
+            MemberField field = of(fieldName.trim());
+            if (!result.contains(field)) {
+                result.add(field);
+            }
+        }
+        if (result.isEmpty()) {
+            throw new IllegalArgumentException("fields 가 비어 있습니다.");
+        }
+        return result;
+    }
+}
@@ -5,6 +5,7 @@ import jakarta.persistence.PersistenceContext;
 import org.springframework.stereotype.Repository;
 import study.datajpa.entity.Member;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -61,8 +62,9 @@ public class MemberJpaRepository {
     }
 
     public int bulkAgePlus(int age) {
-        return entityManager.createQuery("update Member m set m.age = m.age + 1 where m.age >= :age")
+        return entityManager.createQuery("update Member m set m.age = m.age + 1, m.lastModifiedDate = :now where m.age >= :age")
                 .setParameter("age", age)
+                .setParameter("now", LocalDateTime.now())
                 .executeUpdate();
     }
 }
\ No newline at end of file
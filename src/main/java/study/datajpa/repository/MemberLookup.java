@@ -0,0 +1,46 @@
+package study.datajpa.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import study.datajpa.archive.TieredMemberReader;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.hotkey.HotKeyRegistry;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 자주 조회되는 회원 단건 조회를 SingleFlight 로 감싼다.
+ * 같은 id / username 으로 동시에 들어온 조회는 쿼리 한 번의 결과(MemberDto)를 나눠 받는다.
+ * id 조회는 아카이브된 회원까지 찾는다.
+ */
+@Component
+public class MemberLookup {
+
+    private final MemberRepository memberRepository;
+    private final TieredMemberReader tieredMemberReader;
+    private final HotKeyRegistry hotKeys;
+    private final SingleFlight<Long, Optional<MemberDto>> byId;
+    private final SingleFlight<String, List<MemberDto>> byUsername;
+
+    public MemberLookup(MemberRepository memberRepository, TieredMemberReader tieredMemberReader,
+                        HotKeyRegistry hotKeys, MeterRegistry meterRegistry) {
+        this.memberRepository = memberRepository;
+        this.tieredMemberReader = tieredMemberReader;
+        this.hotKeys = hotKeys;
+        this.byId = new SingleFlight<>("member.findById", meterRegistry);
+        this.byUsername = new SingleFlight<>("member.findByUsername", meterRegistry);
+    }
+
+    /**
+     * id 접근 빈도는 요청 경계(MemberResponseCacheFilter)에서 기록한다. 여기서 다시 세면 캐시 미스가 두 번 잡힌다.
+     */
+    public Optional<MemberDto> findById(Long id) {
+        return byId.execute(id, () -> tieredMemberReader.findById(id));
+    }
+
+    public List<MemberDto> findByUsername(String username) {
+        hotKeys.record(HotKeyRegistry.MEMBER_USERNAME, username);
+        return byUsername.execute(username, () -> List.copyOf(memberRepository.findMemberDtoByUsername(username)));
+    }
+}
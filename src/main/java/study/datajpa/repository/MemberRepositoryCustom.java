@@ -1,9 +1,23 @@
 package study.datajpa.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberFieldRow;
+import study.datajpa.dto.MemberSearchCondition;
 import study.datajpa.entity.Member;
 
 import java.util.List;
 
 public interface MemberRepositoryCustom {
     List<Member> findMemberCustom();
+
+    Page<MemberDto> search(MemberSearchCondition condition, Pageable pageable);
+
+    Slice<MemberDto> searchByCursor(MemberSearchCondition condition, Long lastMemberId, int size);
+
+    List<Member> findCompiled(MemberSpecification spec);
+
+    Page<MemberFieldRow> findFields(List<MemberField> fields, Pageable pageable);
 }
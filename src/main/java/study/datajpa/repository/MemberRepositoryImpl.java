@@ -1,21 +1,199 @@
 package study.datajpa.repository;
 
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.ConstructorExpression;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Order;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
-import lombok.RequiredArgsConstructor;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.*;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberFieldRow;
+import study.datajpa.dto.MemberSearchCondition;
 import study.datajpa.entity.Member;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-@RequiredArgsConstructor
+import static study.datajpa.entity.QMember.member;
+import static study.datajpa.entity.QTeam.team;
+
+// 조회만 있다. 커넥션은 메서드가 끝날 때(커밋) 반납된다
+@Transactional(readOnly = true)
 public class MemberRepositoryImpl implements MemberRepositoryCustom{
 
     @PersistenceContext
     private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    // Specification 구조(shape) -> JPQL. 같은 JPQL 문자열이면 Hibernate 쿼리 플랜 캐시도 그대로 재사용된다
+    private final ConcurrentMap<String, String> compiledSpecs = new ConcurrentHashMap<>();
+
+    private final TeamRepository teamRepository;
+
+    public MemberRepositoryImpl(EntityManager em, TeamRepository teamRepository) {
+        this.em = em;
+        this.teamRepository = teamRepository;
+        this.queryFactory = new JPAQueryFactory(em);
+    }
 
     @Override
     public List<Member> findMemberCustom() {
         return em.createQuery("select m from Member m", Member.class)
                 .getResultList();
     }
+
+    @Override
+    public Page<MemberDto> search(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberDto> content = queryFactory
+                .select(memberDto())
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(searchCondition(condition))
+                .orderBy(orderSpecifiers(pageable.getSort()))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        // count 는 조회 컬럼이 필요 없으므로 팀 조건이 있을 때만 조인한다
+        JPAQuery<Long> countQuery = queryFactory
+                .select(member.count())
+                .from(member);
+        if (StringUtils.hasText(condition.getTeamName())) {
+            countQuery.join(member.team, team);
+        }
+        countQuery.where(searchCondition(condition));
+
+        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchOne);
+    }
+
+    @Override
+    public Slice<MemberDto> searchByCursor(MemberSearchCondition condition, Long lastMemberId, int size) {
+        List<MemberDto> content = queryFactory
+                .select(memberDto())
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(searchCondition(condition))
+                .where(memberIdGt(lastMemberId))
+                .orderBy(member.id.asc())
+                .limit(size + 1)
+                .fetch();
+
+        boolean hasNext = content.size() > size;
+        if (hasNext) {
+            content.remove(size);
+        }
+        return new SliceImpl<>(content, PageRequest.of(0, size), hasNext);
+    }
+
+    @Override
+    public List<Member> findCompiled(MemberSpecification spec) {
+        String jpql = compiledSpecs.computeIfAbsent(spec.shapeKey(), key -> spec.toJpql());
+        TypedQuery<Member> query = em.createQuery(jpql, Member.class);
+        List<Object> values = spec.values();
+        for (int i = 0; i < values.size(); i++) {
+            Object value = values.get(i);
+            if (value instanceof MemberSpecification.TeamName teamName) {
+                //없는 팀이면 null 을 바인딩한다 (m.team.id = null 은 아무것도 찾지 않는다)
+                value = teamRepository.findIdByName(teamName.name).orElse(null);
+            }
+            query.setParameter("p" + (i + 1), value);
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    public Page<MemberFieldRow> findFields(List<MemberField> fields, Pageable pageable) {
+        String[] names = new String[fields.size()];
+        Expression<?>[] columns = new Expression<?>[fields.size()];
+        boolean joinTeam = pageable.getSort().getOrderFor("teamName") != null;
+        for (int i = 0; i < fields.size(); i++) {
+            names[i] = fields.get(i).getFieldName();
+            columns[i] = fields.get(i).getExpression();
+            joinTeam |= fields.get(i).needsTeam();
+        }
+
+        JPAQuery<Tuple> query = queryFactory
+                .select(columns)
+                .from(member);
+        if (joinTeam) {
+            query.leftJoin(member.team, team);
+        }
+        List<MemberFieldRow> content = query
+                .orderBy(orderSpecifiers(pageable.getSort()))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch()
+                .stream()
+                .map(tuple -> new MemberFieldRow(names, tuple.toArray()))
+                .toList();
+
+        JPAQuery<Long> countQuery = queryFactory
+                .select(member.count())
+                .from(member);
+
+        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchOne);
+    }
+
+    private ConstructorExpression<MemberDto> memberDto() {
+        return Projections.constructor(MemberDto.class, member.id, member.username, team.name);
+    }
+
+    private BooleanExpression[] searchCondition(MemberSearchCondition condition) {
+        return new BooleanExpression[]{
+                usernameEq(condition.getUsername()),
+                teamNameEq(condition.getTeamName()),
+                ageGoe(condition.getAgeGoe()),
+                ageLoe(condition.getAgeLoe())
+        };
+    }
+
+    private BooleanExpression usernameEq(String username) {
+        return StringUtils.hasText(username) ? member.username.eq(username) : null;
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        return StringUtils.hasText(teamName) ? team.name.eq(teamName) : null;
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+
+    private BooleanExpression memberIdGt(Long lastMemberId) {
+        return lastMemberId != null ? member.id.gt(lastMemberId) : null;
+    }
+
+    private OrderSpecifier<?>[] orderSpecifiers(Sort sort) {
+        List<OrderSpecifier<?>> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            Order direction = order.isAscending() ? Order.ASC : Order.DESC;
+            switch (order.getProperty()) {
+                case "id" -> orders.add(new OrderSpecifier<>(direction, member.id));
+                case "username" -> orders.add(new OrderSpecifier<>(direction, member.username));
+                case "age" -> orders.add(new OrderSpecifier<>(direction, member.age));
+                case "teamName" -> orders.add(new OrderSpecifier<>(direction, team.name));
+                default -> throw new IllegalArgumentException("정렬할 수 없는 속성입니다. property=" + order.getProperty());
+            }
+        }
+        // 페이지 사이에서 순서가 흔들리지 않도록 id 를 마지막 정렬 기준으로 둔다
+        if (sort.getOrderFor("id") == null) {
+            orders.add(member.id.asc());
+        }
+        return orders.toArray(OrderSpecifier[]::new);
+    }
 }
@@ -6,29 +6,41 @@ import org.springframework.util.StringUtils;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
 
-import java.util.Objects;
-
 public class MemberSpec {
 
-    public static Specification<Member> teamName(final String teamName) {
-        return new Specification<>() {
+    /**
+     * 팀 이름으로 거르되 팀을 조인하지 않고 m.team_id 로 거른다. 이름은 쿼리를 실행할 때 team_id 로 바뀐다.
+     * <ul>
+     *     <li>findCompiled: MemberRepositoryImpl 이 TeamRepository(이름 캐시)로 찾은 id 를 바인딩한다</li>
+     *     <li>Criteria(findAll 등): team_id 서브쿼리로 거른다</li>
+     * </ul>
+     * 없는 팀이면 아무것도 찾지 않는다.
+     */
+    public static MemberSpecification teamName(final String teamName) {
+        if (!StringUtils.hasText(teamName)) {
+            return MemberSpecification.all();
+        }
+
+        return MemberSpecification.of("m.team.id = ?", false, new Specification<>() {
             @Override
             public Predicate toPredicate(Root<Member> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
 
-                if (!StringUtils.hasText(teamName)) {
-                    return null;
-                }
-
-                Join<Member, Team> t = root.join("team", JoinType.INNER); // 회원과 조인
-                return criteriaBuilder.equal(t.get("name"), teamName);
+                Subquery<Long> teamId = query.subquery(Long.class);
+                Root<Team> t = teamId.from(Team.class);
+                teamId.select(t.get("id")).where(criteriaBuilder.equal(t.get("name"), teamName));
+                return criteriaBuilder.equal(root.get("team").get("id"), teamId);
 
             }
-        };
+        }, new MemberSpecification.TeamName(teamName));
     }
 
-    public static Specification<Member> username(final String username) {
-        return (Specification<Member>) (root, query, builder) -> {
+    public static MemberSpecification username(final String username) {
+        if (username == null) {
+            return MemberSpecification.of("m.username is null", false,
+                    (root, query, builder) -> builder.isNull(root.get("username")));
+        }
+        return MemberSpecification.of("m.username = ?", false, (Specification<Member>) (root, query, builder) -> {
             return builder.equal(root.get("username"), username);
-        };
+        }, username);
     }
 }
@@ -0,0 +1,135 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+import study.datajpa.entity.Member;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 구조(shape)를 알고 있는 회원 Specification.
+ * JpaSpecificationExecutor 에는 보통 Specification 처럼 넘길 수 있고,
+ * MemberRepository.findCompiled 로 넘기면 같은 구조의 JPQL 을 한 번만 만들고 이후에는 파라미터만 바인딩한다.
+ */
+public class MemberSpecification implements Specification<Member> {
+
+    private static final MemberSpecification ALL = new MemberSpecification("", List.of(), false, (root, query, builder) -> null);
+
+    private final String shape;
+    private final List<Object> values;
+    private final boolean joinTeam;
+    private final Specification<Member> criteria;
+
+    private MemberSpecification(String shape, List<Object> values, boolean joinTeam, Specification<Member> criteria) {
+        this.shape = shape;
+        this.values = values;
+        this.joinTeam = joinTeam;
+        this.criteria = criteria;
+    }
+
+    /**
+     * @param shape 값 자리를 ? 로 둔 JPQL 조건. 회원 별칭은 m, 팀 별칭은 t
+     */
+    static MemberSpecification of(String shape, boolean joinTeam, Specification<Member> criteria, Object... values) {
+        return new MemberSpecification(shape, List.of(values), joinTeam, criteria);
+    }
+
+    static MemberSpecification all() {
+        return ALL;
+    }
+
+    @Override
+    public Predicate toPredicate(Root<Member> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+        return criteria.toPredicate(root, query, criteriaBuilder);
+    }
+
+    @Override
+    public Specification<Member> and(Specification<Member> other) {
+        if (other instanceof MemberSpecification spec) {
+            return and(spec);
+        }
+        return Specification.super.and(other);
+    }
+
+    @Override
+    public Specification<Member> or(Specification<Member> other) {
+        if (other instanceof MemberSpecification spec) {
+            return or(spec);
+        }
+        return Specification.super.or(other);
+    }
+
+    public MemberSpecification and(MemberSpecification other) {
+        return combine("and", other, Specification.where(criteria).and(other.criteria));
+    }
+
+    public MemberSpecification or(MemberSpecification other) {
+        return combine("or", other, Specification.where(criteria).or(other.criteria));
+    }
+
+    private MemberSpecification combine(String operator, MemberSpecification other, Specification<Member> combined) {
+        if (other.shape.isEmpty()) {
+            return this;
+        }
+        if (shape.isEmpty()) {
+            return other;
+        }
+        List<Object> combinedValues = new ArrayList<>(values.size() + other.values.size());
+        combinedValues.addAll(values);
+        combinedValues.addAll(other.values);
+        return new MemberSpecification("(" + shape + ") " + operator + " (" + other.shape + ")",
+                Collections.unmodifiableList(combinedValues), joinTeam || other.joinTeam, combined);
+    }
+
+    /**
+     * 컴파일 캐시의 키. 값은 포함하지 않는다.
+     */
+    public String shapeKey() {
+        return joinTeam ? "team|" + shape : shape;
+    }
+
+    public List<Object> values() {
+        return values;
+    }
+
+    /**
+     * 실행할 때 team_id 로 바꿔서 바인딩할 팀 이름
+     */
+    static final class TeamName {
+        final String name;
+
+        TeamName(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    String toJpql() {
+        StringBuilder jpql = new StringBuilder("select m from Member m");
+        if (joinTeam) {
+            jpql.append(" join m.team t");
+        }
+        if (!shape.isEmpty()) {
+            jpql.append(" where ");
+            int position = 1;
+            for (int i = 0; i < shape.length(); i++) {
+                char c = shape.charAt(i);
+                if (c == '?') {
+                    jpql.append(":p").append(position++);
+                } else {
+                    jpql.append(c);
+                }
+            }
+        }
+        return jpql.toString();
+    }
+}
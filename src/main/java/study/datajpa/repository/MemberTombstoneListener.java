@@ -0,0 +1,63 @@
+package study.datajpa.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Member;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * 회원이 삭제되면 같은 트랜잭션에서 member_tombstone 에 기록한다.
+ * flush 도중에 불리므로 엔티티를 persist 하지 않고 이벤트의 세션 커넥션으로 바로 insert 한다.
+ * 벌크 delete 는 엔티티 이벤트가 없으므로 기록되지 않는다.
+ * <p>
+ * 엔티티가 리포지토리 패키지를 알지 않도록 @EntityListeners 대신 Hibernate 이벤트 리스너로 등록한다.
+ */
+@Component
+public class MemberTombstoneListener implements PostDeleteEventListener {
+
+    private final EntityManagerFactory emf;
+
+    public MemberTombstoneListener(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    @PostConstruct
+    void register() {
+        emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+        Long id = (Long) event.getId();
+        Timestamp deletedDate = Timestamp.valueOf(LocalDateTime.now());
+        event.getSession().doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "insert into member_tombstone (member_id, deleted_date) values (?, ?)")) {
+                statement.setLong(1, id);
+                statement.setTimestamp(2, deletedDate);
+                statement.executeUpdate();
+            }
+        });
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+}
@@ -0,0 +1,192 @@
+package study.datajpa.repository;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 동시에 들어온 회원 저장/수정 요청을 짧은 시간 동안 모아 하나의 트랜잭션으로 커밋한다(group commit).
+ * 묶음 크기는 hibernate.jdbc.batch_size 와 맞춰 JDBC 배치로 실행된다.
+ * 대기 시간(window)은 묶음이 얼마나 찼는지에 따라 min-window ~ max-window 사이에서 조절된다.
+ */
+@Component
+public class MemberWriteCoordinator implements DisposableBean {
+
+    private final MemberRepository memberRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBatchSize;
+    private final long minWindowNanos;
+    private final long maxWindowNanos;
+
+    private final BlockingQueue<WriteRequest> queue = new LinkedBlockingQueue<>();
+    private final Thread worker;
+    private volatile boolean running = true;
+    private volatile long windowNanos;
+
+    public MemberWriteCoordinator(MemberRepository memberRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${member.group-commit.max-batch-size:100}") int maxBatchSize,
+                                  @Value("${member.group-commit.min-window:0ms}") Duration minWindow,
+                                  @Value("${member.group-commit.max-window:5ms}") Duration maxWindow) {
+        this.memberRepository = memberRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxBatchSize = maxBatchSize;
+        this.minWindowNanos = minWindow.toNanos();
+        this.maxWindowNanos = maxWindow.toNanos();
+        this.windowNanos = minWindowNanos;
+
+        this.worker = new Thread(this::run, "member-group-commit");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public CompletableFuture<Member> save(Member member) {
+        boolean isNew = member.getId() == null;
+        return submit(new WriteRequest(repository -> {
+            if (isNew) {
+                // 묶음이 롤백된 뒤 다시 실행될 때 이전 시도에서 받은 id 를 버린다
+                member.setId(null);
+            }
+            return repository.save(member);
+        }));
+    }
+
+    public CompletableFuture<Member> update(Long id, Consumer<Member> change) {
+        return submit(new WriteRequest(repository -> {
+            Member member = repository.findById(id)
+                    .orElseThrow(() -> new IllegalArgumentException("존재하지 않는 회원입니다. id=" + id));
+            change.accept(member);
+            return member;
+        }));
+    }
+
+    public long currentWindowNanos() {
+        return windowNanos;
+    }
+
+    private CompletableFuture<Member> submit(WriteRequest request) {
+        if (!running) {
+            request.future.completeExceptionally(new IllegalStateException("MemberWriteCoordinator is shut down"));
+            return request.future;
+        }
+        queue.add(request);
+        return request.future;
+    }
+
+    private void run() {
+        List<WriteRequest> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                WriteRequest first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                commit(batch);
+                adapt(batch.size());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (Throwable e) {
+                batch.forEach(request -> request.future.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+        WriteRequest request;
+        while ((request = queue.poll()) != null) {
+            request.future.completeExceptionally(new IllegalStateException("MemberWriteCoordinator is shut down"));
+        }
+    }
+
+    private void collect(List<WriteRequest> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + windowNanos;
+        while (batch.size() < maxBatchSize) {
+            // 이미 쌓여 있는 요청은 기다리지 않고 가져온다
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            if (batch.size() >= maxBatchSize) {
+                return;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            WriteRequest next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void commit(List<WriteRequest> batch) {
+        try {
+            List<Member> results = transactionTemplate.execute(status -> {
+                List<Member> saved = new ArrayList<>(batch.size());
+                for (WriteRequest request : batch) {
+                    saved.add(request.action.apply(memberRepository));
+                }
+                return saved;
+            });
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(results.get(i));
+            }
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).future.completeExceptionally(e);
+                return;
+            }
+            // 한 건의 실패가 묶음 전체를 롤백시키므로, 각자 자기 트랜잭션으로 다시 실행해서 자기 결과/예외를 받게 한다
+            for (WriteRequest request : batch) {
+                try {
+                    request.future.complete(transactionTemplate.execute(status -> request.action.apply(memberRepository)));
+                } catch (RuntimeException ex) {
+                    request.future.completeExceptionally(ex);
+                }
+            }
+        }
+    }
+
+    private void adapt(int batchSize) {
+        long window = windowNanos;
+        if (batchSize <= 1 || batchSize >= maxBatchSize) {
+            // 혼자 왔으면 기다린 만큼 손해, 가득 찼으면 기다릴 필요가 없다
+            window = Math.max(minWindowNanos, window / 2);
+        } else {
+            window = Math.min(maxWindowNanos, window + Math.max(1, maxWindowNanos / 8));
+        }
+        windowNanos = window;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private interface WriteAction {
+        Member apply(MemberRepository repository);
+    }
+
+    private static class WriteRequest {
+        private final WriteAction action;
+        private final CompletableFuture<Member> future = new CompletableFuture<>();
+
+        private WriteRequest(WriteAction action) {
+            this.action = action;
+        }
+    }
+}
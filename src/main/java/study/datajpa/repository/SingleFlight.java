@@ -0,0 +1,76 @@
+package study.datajpa.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * 같은 key 로 동시에 들어온 호출을 하나로 합친다(single flight).
+ * 먼저 온 호출이 loader 를 실행하고, 그동안 들어온 호출은 그 결과(또는 예외)를 같이 받는다.
+ * 결과는 여러 스레드가 공유하므로 엔티티가 아닌 DTO 같은 분리된 값이어야 한다.
+ * <p>
+ * metrics: singleflight.calls / singleflight.executions / singleflight.coalescing.ratio (tag name)
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter calls;
+    private final Counter executions;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.calls = Counter.builder("singleflight.calls").tag("name", name).register(meterRegistry);
+        this.executions = Counter.builder("singleflight.executions").tag("name", name).register(meterRegistry);
+        Gauge.builder("singleflight.coalescing.ratio", this, SingleFlight::coalescingRatio)
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        calls.increment();
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        executions.increment();
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * 합쳐진 호출의 비율 (1 - 실제 실행 수 / 호출 수)
+     */
+    public double coalescingRatio() {
+        double count = calls.count();
+        return count == 0 ? 0 : 1 - executions.count() / count;
+    }
+
+    private V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
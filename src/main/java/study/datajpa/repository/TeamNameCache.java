@@ -0,0 +1,68 @@
+package study.datajpa.repository;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 팀 이름(natural id) -> team_id 캐시.
+ * 커밋된 값만 넣는다. 트랜잭션 안에서 조회한 값은 커밋 후에 넣고, 조회 이후 팀이 바뀌었으면(generation 변경) 버린다.
+ * 팀 수정/삭제는 TeamNameCacheListener 가 알려준다. (벌크 update 는 엔티티 이벤트가 없으므로 evictAll 을 직접 호출)
+ */
+@Component
+public class TeamNameCache {
+
+    private final ConcurrentMap<String, Long> idByName = new ConcurrentHashMap<>();
+    private long generation;
+
+    public Optional<Long> get(String name) {
+        return Optional.ofNullable(idByName.get(name));
+    }
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public void put(String name, Long id, long readGeneration) {
+        afterCommit(() -> {
+            synchronized (this) {
+                if (generation == readGeneration) {
+                    idByName.put(name, id);
+                }
+            }
+        });
+    }
+
+    public void evict(Long teamId) {
+        evictNow(teamId);
+        // 커밋 전에 다른 트랜잭션이 옛 값을 다시 넣었을 수 있으므로 커밋 후에 한 번 더 지운다
+        afterCommit(() -> evictNow(teamId));
+    }
+
+    public synchronized void evictAll() {
+        generation++;
+        idByName.clear();
+    }
+
+    private synchronized void evictNow(Long teamId) {
+        generation++;
+        idByName.values().removeIf(teamId::equals);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -2,8 +2,11 @@ package study.datajpa.repository;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.entity.Team;
+import study.datajpa.hotkey.HotKeyRegistry;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,6 +17,14 @@ public class TeamRepository {
     @PersistenceContext
     private EntityManager em;
 
+    private final TeamNameCache teamNameCache;
+    private final HotKeyRegistry hotKeys;
+
+    public TeamRepository(TeamNameCache teamNameCache, HotKeyRegistry hotKeys) {
+        this.teamNameCache = teamNameCache;
+        this.hotKeys = hotKeys;
+    }
+
     public Team save(Team team) {
         em.persist(team);
         return team;
@@ -28,10 +39,53 @@ public class TeamRepository {
     }
 
     public Optional<Team> findById(Long id) {
+        hotKeys.record(HotKeyRegistry.TEAM_ID, id);
         Team team = em.find(Team.class, id);
         return Optional.ofNullable(team);
     }
 
+    /**
+     * 캐시에 id 가 있으면 PK 로 찾고(영속성 컨텍스트 우선), 없으면 natural id 로 조회한다.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Team> findByName(String name) {
+        hotKeys.record(HotKeyRegistry.TEAM_NAME, name);
+        Optional<Long> cachedId = teamNameCache.get(name);
+        if (cachedId.isPresent()) {
+            Team team = em.find(Team.class, cachedId.get());
+            if (team != null && name.equals(team.getName())) {
+                return Optional.of(team);
+            }
+            teamNameCache.evict(cachedId.get());
+        }
+
+        long generation = teamNameCache.generation();
+        Team team = em.unwrap(Session.class).bySimpleNaturalId(Team.class).load(name);
+        if (team != null) {
+            teamNameCache.put(name, team.getId(), generation);
+        }
+        return Optional.ofNullable(team);
+    }
+
+    /**
+     * 팀 이름으로 team_id 만 찾는다. 조인 대신 team_id 로 거르는 조회에 사용한다.
+     */
+    public Optional<Long> findIdByName(String name) {
+        hotKeys.record(HotKeyRegistry.TEAM_NAME, name);
+        Optional<Long> cachedId = teamNameCache.get(name);
+        if (cachedId.isPresent()) {
+            return cachedId;
+        }
+
+        long generation = teamNameCache.generation();
+        Optional<Long> id = em.createQuery("select t.id from Team t where t.name = :name", Long.class)
+                .setParameter("name", name)
+                .getResultStream()
+                .findFirst();
+        id.ifPresent(teamId -> teamNameCache.put(name, teamId, generation));
+        return id;
+    }
+
     public long count() {
         return em.createQuery("select count(t) from Team t", Long.class).getSingleResult();
     }
@@ -0,0 +1,40 @@
+package study.datajpa.shard;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * shard.urls 가 설정되어 있을 때만 샤딩 저장소를 만든다.
+ * 샤드 DataSource 는 빈으로 등록하지 않는다(JPA 가 쓰는 기본 DataSource 자동 설정이 꺼지지 않도록).
+ * <pre>
+ * shard:
+ *   urls: jdbc:h2:tcp://localhost/~/shard0,jdbc:h2:tcp://localhost/~/shard1
+ * </pre>
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "shard", name = "urls")
+public class ShardConfig {
+
+    @Bean(destroyMethod = "close")
+    public ShardRouter shardRouter(@Value("${shard.urls}") List<String> urls,
+                                   @Value("${shard.username:sa}") String username,
+                                   @Value("${shard.password:}") String password) {
+        List<DataSource> dataSources = urls.stream()
+                .map(url -> DataSourceBuilder.create().url(url).username(username).password(password).build())
+                .toList();
+        ShardRouter router = new ShardRouter(dataSources);
+        router.initSchema();
+        return router;
+    }
+
+    @Bean
+    public ShardedMemberRepository shardedMemberRepository(ShardRouter shardRouter) {
+        return new ShardedMemberRepository(shardRouter);
+    }
+}
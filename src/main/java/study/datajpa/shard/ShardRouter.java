@@ -0,0 +1,92 @@
+package study.datajpa.shard;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * N 개의 샤드 DataSource 와 라우팅 규칙.
+ * <ul>
+ *     <li>id 의 하위 SHARD_BITS 비트가 샤드 번호다. id 만으로 샤드를 찾을 수 있다.</li>
+ *     <li>팀은 이름 해시로 샤드를 정하고, 회원은 소속 팀의 샤드에 둔다(팀이 없으면 username 해시).</li>
+ * </ul>
+ * 샤드 수를 바꾸면 기존 id 의 위치가 달라지지 않지만 새 팀의 배치는 달라진다.
+ */
+public class ShardRouter implements AutoCloseable {
+
+    static final int SHARD_BITS = 8;
+    private static final long SHARD_MASK = (1L << SHARD_BITS) - 1;
+
+    private final List<DataSource> dataSources;
+    private final List<JdbcTemplate> shards;
+    private final ExecutorService executor;
+
+    public ShardRouter(List<DataSource> dataSources) {
+        if (dataSources.isEmpty() || dataSources.size() > SHARD_MASK + 1) {
+            throw new IllegalArgumentException("샤드 수는 1 ~ " + (SHARD_MASK + 1) + " 개여야 합니다. size=" + dataSources.size());
+        }
+        this.dataSources = List.copyOf(dataSources);
+        this.shards = dataSources.stream().map(JdbcTemplate::new).toList();
+        this.executor = Executors.newFixedThreadPool(dataSources.size(), runnable -> {
+            Thread thread = new Thread(runnable, "shard-query");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void initSchema() {
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("db/shard-schema.sql"));
+        dataSources.forEach(populator::execute);
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    public int shardOf(long id) {
+        return (int) (id & SHARD_MASK);
+    }
+
+    public int shardFor(Object key) {
+        return Math.floorMod(Objects.hashCode(key), shards.size());
+    }
+
+    public JdbcTemplate shard(int shard) {
+        return shards.get(shard);
+    }
+
+    public long nextId(int shard) {
+        Long sequence = shards.get(shard).queryForObject("select next value for shard_seq", Long.class);
+        return (sequence << SHARD_BITS) | shard;
+    }
+
+    /**
+     * 모든 샤드에 같은 조회를 병렬로 실행하고 샤드 순서대로 결과를 돌려준다.
+     */
+    public <T> List<T> scatter(Function<JdbcTemplate, T> query) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.size());
+        for (JdbcTemplate shard : shards) {
+            futures.add(CompletableFuture.supplyAsync(() -> query.apply(shard), executor));
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    @Override
+    public void close() throws Exception {
+        executor.shutdown();
+        for (DataSource dataSource : dataSources) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
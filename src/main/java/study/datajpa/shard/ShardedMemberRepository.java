@@ -0,0 +1,172 @@
+package study.datajpa.shard;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.RowMapper;
+import study.datajpa.dto.MemberRow;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import java.util.*;
+
+/**
+ * team_id 기준으로 샤딩된 회원/팀 저장소 (JDBC).
+ * id 나 팀으로 샤드가 정해지는 조회는 한 샤드로 보내고, 나머지는 모든 샤드에 병렬로 보낸 뒤 합친다.
+ */
+public class ShardedMemberRepository {
+
+    private static final String MEMBER_COLUMNS = "member_id, username, age, team_id";
+    private static final RowMapper<MemberRow> MEMBER_ROW = (rs, rowNum) -> new MemberRow(
+            rs.getLong("member_id"), rs.getString("username"), rs.getInt("age"), rs.getObject("team_id", Long.class));
+
+    private final ShardRouter router;
+
+    public ShardedMemberRepository(ShardRouter router) {
+        this.router = router;
+    }
+
+    public Team save(Team team) {
+        int shard = router.shardFor(team.getName());
+        long id = router.nextId(shard);
+        router.shard(shard).update("insert into team (team_id, name) values (?, ?)", id, team.getName());
+        team.setId(id);
+        return team;
+    }
+
+    /**
+     * 팀이 있으면 팀과 같은 샤드에 저장한다. 팀은 이 저장소로 먼저 저장되어 있어야 한다.
+     */
+    public Member save(Member member) {
+        Team team = member.getTeam();
+        if (team != null && team.getId() == null) {
+            throw new IllegalArgumentException("팀을 먼저 저장해야 합니다. team=" + team.getName());
+        }
+        int shard = team != null ? router.shardOf(team.getId()) : router.shardFor(member.getUsername());
+        long id = router.nextId(shard);
+        router.shard(shard).update("insert into member (" + MEMBER_COLUMNS + ") values (?, ?, ?, ?)",
+                id, member.getUsername(), member.getAge(), team != null ? team.getId() : null);
+        member.setId(id);
+        return member;
+    }
+
+    public Optional<MemberRow> findById(Long id) {
+        return router.shard(router.shardOf(id))
+                .query("select " + MEMBER_COLUMNS + " from member where member_id = ?", MEMBER_ROW, id)
+                .stream()
+                .findFirst();
+    }
+
+    public List<MemberRow> findByTeamId(Long teamId) {
+        return router.shard(router.shardOf(teamId))
+                .query("select " + MEMBER_COLUMNS + " from member where team_id = ? order by member_id", MEMBER_ROW, teamId);
+    }
+
+    public long countByTeamId(Long teamId) {
+        return router.shard(router.shardOf(teamId))
+                .queryForObject("select count(*) from member where team_id = ?", Long.class, teamId);
+    }
+
+    public List<MemberRow> findByUsername(String username) {
+        List<List<MemberRow>> results = router.scatter(shard -> shard.query(
+                "select " + MEMBER_COLUMNS + " from member where username = ? order by member_id", MEMBER_ROW, username));
+        return merge(results, Comparator.comparing(MemberRow::getId), 0, Integer.MAX_VALUE);
+    }
+
+    public long count() {
+        return router.scatter(shard -> shard.queryForObject("select count(*) from member", Long.class))
+                .stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    /**
+     * 샤드마다 정렬된 앞쪽 offset + size 건을 가져와서 병합 정렬한 뒤 페이지를 자른다.
+     */
+    public Page<MemberRow> findAll(Pageable pageable) {
+        Sort sort = pageable.getSort();
+        String orderBy = orderBy(sort);
+        Comparator<MemberRow> comparator = MemberRow.comparator(sort);
+
+        List<MemberRow> content;
+        if (pageable.isPaged()) {
+            long limit = pageable.getOffset() + pageable.getPageSize();
+            List<List<MemberRow>> results = router.scatter(shard -> shard.query(
+                    "select " + MEMBER_COLUMNS + " from member order by " + orderBy + " limit ?", MEMBER_ROW, limit));
+            content = merge(results, comparator, pageable.getOffset(), pageable.getPageSize());
+        } else {
+            List<List<MemberRow>> results = router.scatter(shard -> shard.query(
+                    "select " + MEMBER_COLUMNS + " from member order by " + orderBy, MEMBER_ROW));
+            content = merge(results, comparator, 0, Integer.MAX_VALUE);
+        }
+        return PageableExecutionUtils.getPage(content, pageable, this::count);
+    }
+
+    /**
+     * 샤드별로 정렬된 목록을 k-way 병합한다.
+     */
+    private static List<MemberRow> merge(List<List<MemberRow>> sortedLists, Comparator<MemberRow> comparator, long offset, int size) {
+        PriorityQueue<Cursor> heads = new PriorityQueue<>((a, b) -> comparator.compare(a.current, b.current));
+        for (List<MemberRow> rows : sortedLists) {
+            Iterator<MemberRow> iterator = rows.iterator();
+            if (iterator.hasNext()) {
+                heads.add(new Cursor(iterator));
+            }
+        }
+
+        List<MemberRow> merged = new ArrayList<>(Math.min(size, 1024));
+        long skipped = 0;
+        while (!heads.isEmpty() && merged.size() < size) {
+            Cursor head = heads.poll();
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                merged.add(head.current);
+            }
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+
+    private static String orderBy(Sort sort) {
+        StringJoiner orderBy = new StringJoiner(", ");
+        for (Sort.Order order : sort) {
+            orderBy.add(column(order.getProperty()) + (order.isAscending() ? " asc" : " desc"));
+        }
+        if (sort.getOrderFor("id") == null) {
+            orderBy.add("member_id asc");
+        }
+        return orderBy.toString();
+    }
+
+    private static String column(String property) {
+        return switch (property) {
+            case "id" -> "member_id";
+            case "username" -> "username";
+            case "age" -> "age";
+            case "teamId" -> "team_id";
+            default -> throw new IllegalArgumentException("정렬할 수 없는 속성입니다. property=" + property);
+        };
+    }
+
+    private static class Cursor {
+        private final Iterator<MemberRow> iterator;
+        private MemberRow current;
+
+        Cursor(Iterator<MemberRow> iterator) {
+            this.iterator = iterator;
+            this.current = iterator.next();
+        }
+
+        boolean advance() {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            current = iterator.next();
+            return true;
+        }
+    }
+}
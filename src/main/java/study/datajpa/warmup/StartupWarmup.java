@@ -0,0 +1,421 @@
+package study.datajpa.warmup;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.NamedQuery;
+import jakarta.persistence.metamodel.EntityType;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberSearchCondition;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.MemberRepositoryCustom;
+
+import javax.sql.DataSource;
+import java.lang.reflect.*;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 준비(readiness) 상태가 되기 전에 첫 요청이 치를 비용을 미리 치른다.
+ * ApplicationRunner 는 ReadinessState.ACCEPTING_TRAFFIC 이 발행되기 전에 실행되므로 끝날 때까지 readiness 프로브는 실패한다.
+ * <ol>
+ *     <li>MemberRepository 의 @Query JPQL 과 엔티티의 @NamedQuery 를 파싱해서 쿼리 계획 캐시에 넣는다</li>
+ *     <li>커넥션 풀 크기만큼 커넥션을 미리 열어 둔다</li>
+ *     <li>인자가 있는 조회 메서드를 롤백 트랜잭션에서 실행해서 SQL 을 만들어 둔다 (인자 없는 전체 조회는 테이블 크기에 비례하므로 파싱만 한다)</li>
+ *     <li>웹 서버가 떠 있으면 warmup.requests 의 URI 로 합성 GET 요청을 보낸다 (JIT)</li>
+ * </ol>
+ * 워밍업 전후로 엔드포인트마다 요청 한 번의 지연 시간과 쿼리 계획 캐시 hit / miss 를 재서 로그로 남긴다.
+ * <p>
+ * /members/{id}, /members2/{id} 는 MemberResponseCacheFilter 가 id 마다 첫 요청 뒤로는 캐시에서 답한다.
+ * URI 에 {id} 를 쓰면 최근 회원 id 를 요청마다 하나씩 넣어서 매번 DB 까지 가는 경로를 데우고 잰다.
+ * 남은 id 가 없으면 그 요청은 보내지 않고 skipped 로 센다. 워밍업 뒤 측정용 id 는 따로 남겨 둔다.
+ * 웹 서버가 없으면 (테스트, 벤치마크) 요청 대신 리포지토리 메서드 호출로 잰다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "warmup.enabled", havingValue = "true")
+public class StartupWarmup implements ApplicationRunner {
+
+    static final String PARAM = "__warmup__";
+    static final String MEMBER_ID = "{id}";
+
+    // 남은 회원 id 가 없어서 보내지 않은 요청
+    private static final Object SKIPPED = new Object();
+
+    private final ApplicationContext context;
+    private final MemberRepository memberRepository;
+    private final EntityManagerFactory emf;
+    private final DataSource dataSource;
+    private final TransactionTemplate rollbackOnly;
+    private final List<String> requests;
+    private final int requestsPerEndpoint;
+    private final int repositoryPasses;
+    private final int concurrency;
+    private final Duration maxDuration;
+
+    private volatile WarmupReport report;
+
+    public StartupWarmup(ApplicationContext context, MemberRepository memberRepository, EntityManagerFactory emf,
+                         DataSource dataSource, PlatformTransactionManager transactionManager,
+                         @Value("${warmup.requests:/hello}") List<String> requests,
+                         @Value("${warmup.requests-per-endpoint:200}") int requestsPerEndpoint,
+                         @Value("${warmup.repository-passes:3}") int repositoryPasses,
+                         @Value("${warmup.concurrency:4}") int concurrency,
+                         @Value("${warmup.max-duration:30s}") Duration maxDuration) {
+        this.context = context;
+        this.memberRepository = memberRepository;
+        this.emf = emf;
+        this.dataSource = dataSource;
+        this.rollbackOnly = new TransactionTemplate(transactionManager);
+        this.requests = requests;
+        this.requestsPerEndpoint = requestsPerEndpoint;
+        this.repositoryPasses = repositoryPasses;
+        this.concurrency = concurrency;
+        this.maxDuration = maxDuration;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        report = warmUp();
+        log.info("{}", report);
+    }
+
+    public WarmupReport getReport() {
+        return report;
+    }
+
+    WarmupReport warmUp() throws Exception {
+        long start = System.nanoTime();
+        long deadline = start + maxDuration.toNanos();
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        boolean statisticsEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+
+        WarmupReport result = new WarmupReport();
+        try {
+            Integer port = serverPort();
+            MemberIds memberIds = port != null ? memberIds() : new MemberIds(List.of(), 0);
+            Map<String, Callable<?>> targets = port != null ? httpTargets(port, memberIds::next) : repositoryTargets();
+
+            result.cold(probe(targets, statistics));
+
+            int parsed = parseQueries();
+            result.primedConnections(primePool());
+            int invoked = 0;
+            int failed = 0;
+            for (int pass = 0; pass < repositoryPasses && System.nanoTime() < deadline; pass++) {
+                for (Callable<?> call : repositoryTargets().values()) {
+                    try {
+                        call.call();
+                        invoked++;
+                    } catch (Exception e) {
+                        failed++;
+                        log.debug("warm-up 호출 실패", e);
+                    }
+                }
+            }
+            result.queries(parsed, invoked, failed);
+
+            if (port != null) {
+                runTraffic(targets, deadline, result);
+            }
+
+            result.memberIds(memberIds.size());
+            result.warm(probe(port != null ? httpTargets(port, memberIds::nextReserved) : targets, statistics));
+        } finally {
+            statistics.setStatisticsEnabled(statisticsEnabled);
+        }
+        result.durationMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return result;
+    }
+
+    private Integer serverPort() {
+        if (context instanceof WebServerApplicationContext web && web.getWebServer() != null && web.getWebServer().getPort() > 0) {
+            return web.getWebServer().getPort();
+        }
+        return null;
+    }
+
+    /**
+     * 대상마다 한 번씩 호출해서 지연 시간을 재고, 그동안의 쿼리 계획 캐시 hit / miss 증가량을 센다.
+     */
+    private WarmupReport.Probe probe(Map<String, Callable<?>> targets, Statistics statistics) {
+        long hits = statistics.getQueryPlanCacheHitCount();
+        long misses = statistics.getQueryPlanCacheMissCount();
+        Map<String, Long> latency = new LinkedHashMap<>();
+        targets.forEach((name, call) -> {
+            long start = System.nanoTime();
+            Object result = null;
+            try {
+                result = call.call();
+            } catch (Exception e) {
+                log.debug("warm-up 측정 요청 실패 {}", name, e);
+            }
+            latency.put(name, result == SKIPPED ? -1L : TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+        });
+        return new WarmupReport.Probe(latency,
+                statistics.getQueryPlanCacheHitCount() - hits,
+                statistics.getQueryPlanCacheMissCount() - misses);
+    }
+
+    private int parseQueries() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return parseQueries(em);
+        } finally {
+            em.close();
+        }
+    }
+
+    private int parseQueries(EntityManager em) {
+        int parsed = 0;
+        for (Method method : queryMethods()) {
+            Query query = method.getAnnotation(Query.class);
+            if (query == null || query.nativeQuery()) {
+                continue;
+            }
+            for (String jpql : List.of(query.value(), query.countQuery())) {
+                // SpEL(#{...}) 이 들어간 쿼리는 스프링 데이터가 바꿔 쓴 뒤에만 파싱된다
+                if (!jpql.isEmpty() && !jpql.contains("#{")) {
+                    em.createQuery(jpql);
+                    parsed++;
+                }
+            }
+        }
+        for (EntityType<?> entity : emf.getMetamodel().getEntities()) {
+            for (NamedQuery namedQuery : entity.getJavaType().getAnnotationsByType(NamedQuery.class)) {
+                em.createNamedQuery(namedQuery.name());
+                parsed++;
+            }
+        }
+        return parsed;
+    }
+
+    private int primePool() throws SQLException {
+        int size = concurrency;
+        if (dataSource.isWrapperFor(HikariDataSource.class)) {
+            size = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+        }
+        List<Connection> connections = new ArrayList<>(size);
+        try {
+            for (int i = 0; i < size; i++) {
+                Connection connection = dataSource.getConnection();
+                connections.add(connection);
+                connection.isValid(1);
+            }
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+        }
+        return connections.size();
+    }
+
+    private void runTraffic(Map<String, Callable<?>> targets, long deadline, WarmupReport result) throws InterruptedException {
+        AtomicLong sent = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicLong skipped = new AtomicLong();
+        List<Callable<?>> calls = new ArrayList<>(targets.values());
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            for (int worker = 0; worker < concurrency; worker++) {
+                executor.execute(() -> {
+                    int perWorker = requestsPerEndpoint * calls.size() / concurrency;
+                    for (int i = 0; i < perWorker && System.nanoTime() < deadline; i++) {
+                        try {
+                            if (calls.get(i % calls.size()).call() == SKIPPED) {
+                                skipped.incrementAndGet();
+                                continue;
+                            }
+                        } catch (Exception e) {
+                            failed.incrementAndGet();
+                        }
+                        sent.incrementAndGet();
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(Math.max(0, deadline - System.nanoTime()) + TimeUnit.SECONDS.toNanos(5), TimeUnit.NANOSECONDS);
+            executor.shutdownNow();
+        }
+        result.traffic(sent.get(), failed.get(), skipped.get());
+    }
+
+    /**
+     * {id} 가 들어간 URI 마다 요청 수 + 측정 2번 만큼 최근 회원 id 를 읽는다.
+     */
+    private MemberIds memberIds() {
+        long templated = requests.stream().filter(uri -> uri.contains(MEMBER_ID)).count();
+        if (templated == 0) {
+            return new MemberIds(List.of(), 0);
+        }
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<Long> ids = em.createQuery("select m.id from Member m order by m.id desc", Long.class)
+                    .setMaxResults((int) Math.min(templated * (requestsPerEndpoint + 2L), Integer.MAX_VALUE))
+                    .getResultList();
+            return new MemberIds(ids, (int) Math.min(templated, ids.size()));
+        } finally {
+            em.close();
+        }
+    }
+
+    private Map<String, Callable<?>> httpTargets(int port, Supplier<Long> memberIds) {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        Map<String, Callable<?>> targets = new LinkedHashMap<>();
+        for (String uri : requests) {
+            targets.put(uri, () -> {
+                String path = uri;
+                if (uri.contains(MEMBER_ID)) {
+                    Long id = memberIds.get();
+                    if (id == null) {
+                        return SKIPPED;
+                    }
+                    path = uri.replace(MEMBER_ID, id.toString());
+                }
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                        .timeout(Duration.ofSeconds(5))
+                        .GET()
+                        .build();
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() >= 500) {
+                    throw new IllegalStateException(uri + " -> " + response.statusCode());
+                }
+                return null;
+            });
+        }
+        return targets;
+    }
+
+    /**
+     * 인자를 만들 수 있는 조회 메서드를 롤백 트랜잭션 안에서 부른다.
+     */
+    private Map<String, Callable<?>> repositoryTargets() {
+        Map<String, Callable<?>> targets = new LinkedHashMap<>();
+        for (Method method : queryMethods()) {
+            if (method.isAnnotationPresent(Modifying.class) || method.getParameterCount() == 0) {
+                continue;
+            }
+            Object[] args = arguments(method);
+            if (args == null) {
+                continue;
+            }
+            targets.put(method.getName(), () -> rollbackOnly.execute(status -> {
+                status.setRollbackOnly();
+                try {
+                    return method.invoke(memberRepository, args);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                } catch (InvocationTargetException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+            }));
+        }
+        return targets;
+    }
+
+    private static List<Method> queryMethods() {
+        List<Method> methods = new ArrayList<>();
+        for (Class<?> type : List.of(MemberRepository.class, MemberRepositoryCustom.class)) {
+            for (Method method : type.getDeclaredMethods()) {
+                if (!method.isDefault() && !Modifier.isStatic(method.getModifiers()) && !method.isSynthetic()) {
+                    methods.add(method);
+                }
+            }
+        }
+        methods.sort(Comparator.comparing(Method::getName));
+        return methods;
+    }
+
+    /**
+     * 만들 수 없는 타입이 하나라도 있으면 null
+     */
+    private static Object[] arguments(Method method) {
+        Type[] types = method.getGenericParameterTypes();
+        Object[] args = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            Type type = types[i];
+            Object arg;
+            if (type == String.class) {
+                arg = PARAM;
+            } else if (type == int.class || type == Integer.class) {
+                arg = 1;
+            } else if (type == long.class || type == Long.class) {
+                arg = 0L;
+            } else if (type == Pageable.class) {
+                arg = PageRequest.of(0, 1);
+            } else if (type == Sort.class) {
+                arg = Sort.unsorted();
+            } else if (type == MemberSearchCondition.class) {
+                MemberSearchCondition condition = new MemberSearchCondition();
+                condition.setUsername(PARAM);
+                arg = condition;
+            } else if (type instanceof ParameterizedType parameterized
+                    && Collection.class.isAssignableFrom((Class<?>) parameterized.getRawType())
+                    && parameterized.getActualTypeArguments()[0] == String.class) {
+                arg = List.of(PARAM);
+            } else {
+                return null;
+            }
+            args[i] = arg;
+        }
+        return args;
+    }
+
+    /**
+     * {id} 에 넣을 회원 id. 요청마다 다른 id 를 꺼내고, 뒤쪽 reserved 개는 워밍업 뒤 측정(nextReserved)용으로 남긴다.
+     */
+    static final class MemberIds {
+        private final List<Long> ids;
+        private final int trafficLimit;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger nextReserved;
+
+        MemberIds(List<Long> ids, int reserved) {
+            this.ids = ids;
+            this.trafficLimit = ids.size() - reserved;
+            this.nextReserved = new AtomicInteger(trafficLimit);
+        }
+
+        Long next() {
+            int i = next.getAndIncrement();
+            return i < trafficLimit ? ids.get(i) : null;
+        }
+
+        Long nextReserved() {
+            int i = nextReserved.getAndIncrement();
+            return i < ids.size() ? ids.get(i) : null;
+        }
+
+        int size() {
+            return ids.size();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package study.datajpa.warmup;
+
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 워밍업 결과. cold 는 워밍업 전에 엔드포인트마다 처음 보낸 요청, warm 은 워밍업이 끝난 뒤 다시 보낸 요청이다.
+ * {id} 엔드포인트는 두 번 다 처음 쓰는 회원 id 라서 응답 캐시를 거치지 않은 지연 시간이다.
+ * 고정 id (/members/1) 는 첫 요청 뒤로 응답 캐시가 답하므로 warm 은 캐시 hit 지연 시간이다.
+ * 보내지 않은 측정(남은 id 없음)은 -1.
+ */
+@Getter
+public class WarmupReport {
+
+    private int parsedQueries;
+    private int invokedMethods;
+    private int failedMethods;
+    private int primedConnections;
+    private long requests;
+    private long failedRequests;
+    private long skippedRequests;
+    private int memberIds;
+    private long durationMillis;
+    private Probe cold = Probe.EMPTY;
+    private Probe warm = Probe.EMPTY;
+
+    void queries(int parsed, int invoked, int failed) {
+        this.parsedQueries = parsed;
+        this.invokedMethods = invoked;
+        this.failedMethods = failed;
+    }
+
+    void primedConnections(int primedConnections) {
+        this.primedConnections = primedConnections;
+    }
+
+    void traffic(long requests, long failedRequests, long skippedRequests) {
+        this.requests = requests;
+        this.failedRequests = failedRequests;
+        this.skippedRequests = skippedRequests;
+    }
+
+    void memberIds(int memberIds) {
+        this.memberIds = memberIds;
+    }
+
+    void durationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    void cold(Probe cold) {
+        this.cold = cold;
+    }
+
+    void warm(Probe warm) {
+        this.warm = warm;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder()
+                .append(String.format("warm-up %d ms: queries parsed=%d invoked=%d failed=%d, connections=%d, requests=%d failed=%d%n",
+                        durationMillis, parsedQueries, invokedMethods, failedMethods, primedConnections, requests, failedRequests))
+                .append(String.format("  {id} requests: %d distinct member ids, each sent once past the response cache, skipped=%d (no unused id left)%n",
+                        memberIds, skippedRequests))
+                .append(String.format("  query plan cache  before: hit=%d miss=%d   after: hit=%d miss=%d%n",
+                        cold.planCacheHits, cold.planCacheMisses, warm.planCacheHits, warm.planCacheMisses));
+        cold.latencyMicros.forEach((uri, before) -> sb.append(String.format("  %-50s before=%8d us  after=%8d us%n",
+                uri, before, warm.latencyMicros.getOrDefault(uri, -1L))));
+        return sb.toString();
+    }
+
+    /**
+     * 엔드포인트마다 요청 한 번의 지연 시간과, 그동안 늘어난 쿼리 계획 캐시 hit / miss
+     */
+    @Getter
+    public static class Probe {
+        static final Probe EMPTY = new Probe(Map.of(), 0, 0);
+
+        private final Map<String, Long> latencyMicros;
+        private final long planCacheHits;
+        private final long planCacheMisses;
+
+        Probe(Map<String, Long> latencyMicros, long planCacheHits, long planCacheMisses) {
+            this.latencyMicros = new LinkedHashMap<>(latencyMicros);
+            this.planCacheHits = planCacheHits;
+            this.planCacheMisses = planCacheMisses;
+        }
+    }
+}
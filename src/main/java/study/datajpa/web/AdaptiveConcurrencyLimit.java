@@ -0,0 +1,108 @@
+package study.datajpa.web;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 관측한 응답 시간으로 동시 실행 한도를 조절하는 AIMD 리미터.
+ * <ul>
+ *     <li>응답 시간이 최소 응답 시간(minRtt) * tolerance 이하이고 한도까지 차 있으면 한도를 1 늘린다.</li>
+ *     <li>더 느리거나 실패하면 한도에 backoffRatio 를 곱해 줄인다.</li>
+ * </ul>
+ * minRtt 는 probeInterval 개의 샘플마다 직전 구간의 최솟값으로 다시 잡는다(기준선 변화 반영).
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final int PROBE_INTERVAL = 1000;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private int waiting;
+    private long minRtt = Long.MAX_VALUE;
+    private long windowMinRtt = Long.MAX_VALUE;
+    private int samples;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * 한도 안에 들어오면 true. 한도가 차 있으면 maxWaitNanos 까지 기다리고, 대기열도 한도만큼 차 있으면 바로 false.
+     */
+    public boolean tryAcquire(long maxWaitNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return true;
+            }
+            if (waiting >= (int) limit || maxWaitNanos <= 0) {
+                return false;
+            }
+            waiting++;
+            try {
+                long remaining = maxWaitNanos;
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+                inFlight++;
+                return true;
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(long rttNanos, boolean success) {
+        lock.lock();
+        try {
+            boolean saturated = inFlight >= (int) limit;
+            inFlight--;
+
+            windowMinRtt = Math.min(windowMinRtt, rttNanos);
+            minRtt = Math.min(minRtt, rttNanos);
+            if (++samples % PROBE_INTERVAL == 0) {
+                minRtt = windowMinRtt;
+                windowMinRtt = Long.MAX_VALUE;
+            }
+
+            if (!success || rttNanos > minRtt * tolerance) {
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            } else if (saturated) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public long getMinRtt(TimeUnit unit) {
+        return minRtt == Long.MAX_VALUE ? 0 : unit.convert(minRtt, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,125 @@
+package study.datajpa.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원 API 앞에서 동시 실행 수를 제한한다. 한도를 넘은 요청은 max-queue-time 동안 기다리고,
+ * 그래도 자리가 없으면 503 + Retry-After 로 돌려보낸다.
+ * 단건 조회(lookup)와 페이지 목록(listing)은 비용이 달라 한도를 따로 둔다.
+ * 커넥션을 잡기 전에 걸러내도록 MemberResponseCacheFilter 다음, 다른 필터보다 먼저 실행된다.
+ * <p>
+ * metrics: concurrency.limit / concurrency.in-flight / concurrency.rejected (tag group)
+ */
+@Component
+@Order(ConcurrencyLimitFilter.ORDER)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    public static final int ORDER = 0;
+
+    //먼저 매칭되는 그룹을 사용한다. lookup 은 숫자 id 만 매칭한다 (/members/changes 는 최대 1000건이라 listing 이다)
+    private final List<LimitGroup> groups;
+    private final long maxQueueTimeNanos;
+    private final String retryAfterSeconds;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    public ConcurrencyLimitFilter(MeterRegistry meterRegistry,
+                                  @Value("${concurrency-limit.max-queue-time:50ms}") Duration maxQueueTime,
+                                  @Value("${concurrency-limit.retry-after:1s}") Duration retryAfter,
+                                  @Value("${concurrency-limit.tolerance:2.0}") double tolerance,
+                                  @Value("${concurrency-limit.listing.initial-limit:8}") int listingInitial,
+                                  @Value("${concurrency-limit.listing.max-limit:40}") int listingMax,
+                                  @Value("${concurrency-limit.lookup.initial-limit:40}") int lookupInitial,
+                                  @Value("${concurrency-limit.lookup.max-limit:200}") int lookupMax) {
+        this.maxQueueTimeNanos = maxQueueTime.toNanos();
+        this.retryAfterSeconds = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+        this.groups = List.of(
+                new LimitGroup("listing", List.of("/members", "/members/search", "/members/search/cursor", "/members/changes"),
+                        new AdaptiveConcurrencyLimit(listingInitial, 1, listingMax, tolerance), meterRegistry),
+                new LimitGroup("lookup", List.of("/members/{id:\\d{1,18}}", "/members2/{id:\\d{1,18}}"),
+                        new AdaptiveConcurrencyLimit(lookupInitial, 1, lookupMax, tolerance), meterRegistry));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return groupOf(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        LimitGroup group = groupOf(request);
+
+        boolean acquired;
+        try {
+            acquired = group.limit.tryAcquire(maxQueueTimeNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            group.rejected.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            filterChain.doFilter(request, response);
+            success = response.getStatus() < 500;
+        } finally {
+            group.limit.release(System.nanoTime() - start, success);
+        }
+    }
+
+    private LimitGroup groupOf(HttpServletRequest request) {
+        String path = urlPathHelper.getPathWithinApplication(request);
+        for (LimitGroup group : groups) {
+            for (String pattern : group.patterns) {
+                if (pathMatcher.match(pattern, path)) {
+                    return group;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static class LimitGroup {
+        private final List<String> patterns;
+        private final AdaptiveConcurrencyLimit limit;
+        private final Counter rejected;
+
+        LimitGroup(String name, List<String> patterns, AdaptiveConcurrencyLimit limit, MeterRegistry meterRegistry) {
+            this.patterns = patterns;
+            this.limit = limit;
+            this.rejected = Counter.builder("concurrency.rejected").tag("group", name).register(meterRegistry);
+            Gauge.builder("concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit).tag("group", name).register(meterRegistry);
+            Gauge.builder("concurrency.in-flight", limit, AdaptiveConcurrencyLimit::getInFlight).tag("group", name).register(meterRegistry);
+            Gauge.builder("concurrency.min-rtt", limit, l -> l.getMinRtt(TimeUnit.MILLISECONDS))
+                    .tag("group", name)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package study.datajpa.web;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnitUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerInterceptor;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.FetchPlan;
+import study.datajpa.repository.FetchPlanHolder;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * ?fetch= 파라미터로 요청의 fetch plan 을 정한다.
+ * <p>
+ * fetch-plan.audit-rate 비율의 요청은 그래프를 적용하지 않고(lazy 그대로) 실행한 뒤,
+ * 그래프가 가져왔을 연관관계 중 실제로 접근(초기화)된 것과 아닌 것을 fetchplan.audit 카운터로 남긴다.
+ * accessed=false 가 많은 경로는 과하게 가져오고 있다는 뜻이다.
+ */
+@Component
+public class FetchPlanInterceptor implements HandlerInterceptor {
+
+    static final String PARAMETER = "fetch";
+    private static final String AUDIT_ATTRIBUTE = FetchPlanInterceptor.class.getName() + ".audit";
+
+    private final EntityManagerFactory emf;
+    private final MeterRegistry meterRegistry;
+    private final double auditRate;
+
+    public FetchPlanInterceptor(EntityManagerFactory emf, MeterRegistry meterRegistry,
+                                @Value("${fetch-plan.audit-rate:0}") double auditRate) {
+        this.emf = emf;
+        this.meterRegistry = meterRegistry;
+        this.auditRate = auditRate;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String value = request.getParameter(PARAMETER);
+        if (value == null) {
+            return true;
+        }
+        FetchPlan plan;
+        try {
+            plan = FetchPlan.parse(value);
+            validate(plan);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+
+        if (plan.isGraph() && auditRate > 0 && ThreadLocalRandom.current().nextDouble() < auditRate) {
+            request.setAttribute(AUDIT_ATTRIBUTE, plan);
+            return true;
+        }
+
+        FetchPlanHolder.set(plan);
+        EntityManager em = EntityManagerFactoryUtils.getTransactionalEntityManager(emf);
+        if (em != null) {
+            plan.applyTo(em.unwrap(Session.class));
+        }
+        return true;
+    }
+
+    // 없는 속성 / 그래프 이름은 쿼리 실행 중에 터지면 500 이 되므로 여기서 400 으로 거른다
+    private void validate(FetchPlan plan) {
+        if (!plan.isGraph()) {
+            return;
+        }
+        EntityManager em = EntityManagerFactoryUtils.getTransactionalEntityManager(emf);
+        if (em != null) {
+            plan.validate(em);
+            return;
+        }
+        em = emf.createEntityManager();
+        try {
+            plan.validate(em);
+        } finally {
+            em.close();
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        FetchPlanHolder.clear();
+        if (request.getAttribute(AUDIT_ATTRIBUTE) instanceof FetchPlan plan) {
+            audit(plan);
+        }
+    }
+
+    private void audit(FetchPlan plan) {
+        // OSIV 의 afterCompletion 보다 먼저 실행되므로 요청의 영속성 컨텍스트가 아직 열려 있다
+        EntityManager em = EntityManagerFactoryUtils.getTransactionalEntityManager(emf);
+        if (em == null) {
+            return;
+        }
+        PersistenceUnitUtil unitUtil = emf.getPersistenceUnitUtil();
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            if (!(entry.getKey() instanceof Member member)) {
+                continue;
+            }
+            for (String path : plan.fetchedPaths(em)) {
+                record(path, isAccessed(unitUtil, member, path.split("\\."), 0));
+            }
+        }
+    }
+
+    private boolean isAccessed(PersistenceUnitUtil unitUtil, Object entity, String[] path, int depth) {
+        if (!unitUtil.isLoaded(entity, path[depth])) {
+            return false;
+        }
+        if (depth == path.length - 1) {
+            return true;
+        }
+        Object value = PropertyAccessorFactory.forDirectFieldAccess(Hibernate.unproxy(entity)).getPropertyValue(path[depth]);
+        if (value instanceof Collection<?> collection) {
+            return collection.stream().anyMatch(element -> isAccessed(unitUtil, Hibernate.unproxy(element), path, depth + 1));
+        }
+        return value != null && isAccessed(unitUtil, Hibernate.unproxy(value), path, depth + 1);
+    }
+
+    private void record(String path, boolean accessed) {
+        meterRegistry.counter("fetchplan.audit", "association", path, "accessed", String.valueOf(accessed)).increment();
+    }
+}
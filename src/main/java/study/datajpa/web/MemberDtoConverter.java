@@ -0,0 +1,22 @@
+package study.datajpa.web;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberLookup;
+
+/**
+ * 경로 변수의 회원 id 를 MemberDto 로 바꾼다. (도메인 클래스 컨버터 대신 MemberLookup 사용)
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberDtoConverter implements Converter<String, MemberDto> {
+
+    private final MemberLookup memberLookup;
+
+    @Override
+    public MemberDto convert(String source) {
+        return memberLookup.findById(Long.valueOf(source)).orElse(null);
+    }
+}
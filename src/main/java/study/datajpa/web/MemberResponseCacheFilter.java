@@ -0,0 +1,73 @@
+package study.datajpa.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UrlPathHelper;
+import study.datajpa.cache.OffHeapResponseCache;
+import study.datajpa.hotkey.HotKeyRegistry;
+
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * /members/{id}, /members2/{id} 응답(회원 이름)을 OffHeapResponseCache 에서 바로 쓴다.
+ * 두 경로의 응답 본문이 같으므로 회원 id 하나로 같이 캐시한다.
+ * 캐시에 있으면 리미터/트랜잭션 필터를 거치지 않도록 가장 먼저 실행된다.
+ * 회원 id 접근 빈도(hot key)는 캐시 적중 여부와 상관없이 여기서 기록한다.
+ */
+@Component
+@Order(MemberResponseCacheFilter.ORDER)
+public class MemberResponseCacheFilter extends OncePerRequestFilter {
+
+    public static final int ORDER = ConcurrencyLimitFilter.ORDER - 10;
+
+    private static final Pattern MEMBER_PATH = Pattern.compile("/members2?/(\\d{1,18})");
+
+    private final OffHeapResponseCache memberResponseCache;
+    private final HotKeyRegistry hotKeys;
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    public MemberResponseCacheFilter(OffHeapResponseCache memberResponseCache, HotKeyRegistry hotKeys) {
+        this.memberResponseCache = memberResponseCache;
+        this.hotKeys = hotKeys;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || memberId(request) <= 0;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long id = memberId(request);
+        hotKeys.record(HotKeyRegistry.MEMBER_ID, id);
+        if (memberResponseCache.writeTo(id, response)) {
+            return;
+        }
+
+        long generation = memberResponseCache.generation(id);
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, wrapper);
+            if (wrapper.getStatus() == HttpStatus.OK.value()) {
+                memberResponseCache.put(id, wrapper.getContentType(), wrapper.getContentAsByteArray(), generation);
+            }
+        } finally {
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private long memberId(HttpServletRequest request) {
+        Matcher matcher = MEMBER_PATH.matcher(urlPathHelper.getPathWithinApplication(request));
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+}
@@ -0,0 +1,27 @@
+package study.datajpa.web;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final FetchPlanInterceptor fetchPlanInterceptor;
+    private final MemberDtoConverter memberDtoConverter;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // OSIV 인터셉터(order 0) 뒤에 실행되어야 요청의 EntityManager 를 사용할 수 있다
+        registry.addInterceptor(fetchPlanInterceptor).order(Ordered.LOWEST_PRECEDENCE);
+    }
+
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addConverter(memberDtoConverter);
+    }
+}
@@ -0,0 +1,20 @@
+-- 샤드 DB 스키마 (ShardRouter.initSchema)
+-- id 는 (샤드 시퀀스 << 8) | 샤드 번호 로 만들어서 애플리케이션이 넣는다
+create sequence if not exists shard_seq start with 1;
+
+create table if not exists team (
+    team_id bigint primary key,
+    name    varchar(255),
+    constraint uk_team_name unique (name)
+);
+
+create table if not exists member (
+    member_id bigint primary key,
+    username  varchar(255),
+    age       integer not null,
+    team_id   bigint,
+    constraint fk_member_team foreign key (team_id) references team (team_id)
+);
+
+create index if not exists idx_member_username on member (username);
+create index if not exists idx_member_team_id on member (team_id);
@@ -0,0 +1,51 @@
+package study.datajpa;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Team;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 커밋까지 해야 하는 테스트(다른 스레드, 커밋 후 콜백, 별도 커넥션으로 읽는 코드)의 데이터 준비/정리.
+ * 롤백으로 충분한 테스트는 @Transactional 을 쓴다.
+ * <p>
+ * 테스트마다 회원 username / 팀 name 앞에 고유 prefix 를 붙이고 끝나면 deleteByPrefix 로 지운다.
+ */
+@Component
+public class TestFixture {
+
+    private final EntityManager em;
+    private final TransactionTemplate tx;
+
+    public TestFixture(EntityManager em, PlatformTransactionManager transactionManager) {
+        this.em = em;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    public <T> T execute(Function<EntityManager, T> action) {
+        return tx.execute(status -> action.apply(em));
+    }
+
+    public void executeWithoutResult(Consumer<EntityManager> action) {
+        tx.executeWithoutResult(status -> action.accept(em));
+    }
+
+    /**
+     * prefix 로 시작하는 회원은 bulk delete 로, 팀은 remove 로 지운다. (팀 이름 캐시 무효화 리스너가 돌도록)
+     */
+    public void deleteByPrefix(String prefix) {
+        executeWithoutResult(em -> {
+            em.createQuery("delete from Member m where m.username like :prefix")
+                    .setParameter("prefix", prefix + "%")
+                    .executeUpdate();
+            em.createQuery("select t from Team t where t.name like :prefix", Team.class)
+                    .setParameter("prefix", prefix + "%")
+                    .getResultList()
+                    .forEach(em::remove);
+        });
+    }
+}
@@ -0,0 +1,88 @@
+package study.datajpa.analytics;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.TestFixture;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = "analytics.snapshot.enabled=true")
+class MemberColumnarSnapshotTest {
+
+    @Autowired MemberColumnarSnapshot snapshot;
+    @Autowired TestFixture fixture;
+    @PersistenceContext EntityManager em;
+
+    private Long teamId;
+    private List<Long> memberIds;
+
+    @BeforeEach
+    void seed() {
+        teamId = fixture.execute(em -> {
+            Team team = new Team("columnarTeam");
+            em.persist(team);
+            for (int i = 1; i <= 4; i++) {
+                em.persist(new Member("columnar" + i, i * 10, team));
+            }
+            return team.getId();
+        });
+        memberIds = em.createQuery("select m.id from Member m where m.username like 'columnar%' order by m.id", Long.class)
+                .getResultList();
+        snapshot.refresh();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fixture.deleteByPrefix("columnar");
+    }
+
+    @Test
+    void aggregatesAndFilters() {
+        AgeStats team = snapshot.ageStatsOfTeam(teamId);
+        assertThat(team.getCount()).isEqualTo(4);
+        assertThat(team.getSum()).isEqualTo(100);
+        assertThat(team.getAvg()).isEqualTo(25.0);
+        assertThat(team.getMin()).isEqualTo(10);
+        assertThat(team.getMax()).isEqualTo(40);
+
+        assertThat(snapshot.ageStatsByTeam().get(teamId).getCount()).isEqualTo(4);
+        assertThat(snapshot.findIdsByUsername("columnar2")).containsExactly(memberIds.get(1));
+
+        Long jpqlCount = em.createQuery("select count(m) from Member m where m.age between 20 and 30", Long.class)
+                .getSingleResult();
+        assertThat(snapshot.count(20, 30)).isEqualTo(jpqlCount);
+    }
+
+    @Test
+    void refreshPicksUpChangesAndDeletes() {
+        fixture.executeWithoutResult(em -> em.find(Member.class, memberIds.get(0)).setAge(50));
+        snapshot.refresh();
+        assertThat(snapshot.ageStatsOfTeam(teamId).getMax()).isEqualTo(50);
+
+        // 새 행은 기존 색인에 이어 붙는다
+        Long addedId = fixture.execute(em -> {
+            Member member = new Member("columnar5", 60, em.find(Team.class, teamId));
+            em.persist(member);
+            return member.getId();
+        });
+        snapshot.refresh();
+        assertThat(snapshot.ageStatsOfTeam(teamId).getCount()).isEqualTo(5);
+        assertThat(snapshot.findIdsByUsername("columnar5")).containsExactly(addedId);
+        assertThat(snapshot.findIdsByUsername("columnar1")).containsExactly(memberIds.get(0));
+
+        fixture.executeWithoutResult(em -> em.remove(em.find(Member.class, memberIds.get(3))));
+        snapshot.refresh();
+        assertThat(snapshot.ageStatsOfTeam(teamId).getCount()).isEqualTo(4);
+        assertThat(snapshot.findIdsByUsername("columnar4")).isEmpty();
+        assertThat(snapshot.findIdsByUsername("columnar5")).containsExactly(addedId);
+    }
+}
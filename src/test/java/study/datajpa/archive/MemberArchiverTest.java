@@ -0,0 +1,197 @@
+package study.datajpa.archive;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import study.datajpa.TestFixture;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberFieldRow;
+import study.datajpa.dto.MemberSearchCondition;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberField;
+import study.datajpa.repository.MemberRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+class MemberArchiverTest {
+
+    private static final Path ARCHIVE_DIR = createTempDirectory();
+
+    @DynamicPropertySource
+    static void archiveDir(DynamicPropertyRegistry registry) {
+        registry.add("archive.dir", ARCHIVE_DIR::toString);
+    }
+
+    @Autowired MemberArchiver archiver;
+    @Autowired MemberArchive archive;
+    @Autowired TieredMemberReader reader;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TestFixture fixture;
+    @PersistenceContext EntityManager em;
+
+    private final List<Long> oldIds = new ArrayList<>();
+    private final List<Long> newIds = new ArrayList<>();
+    private LocalDateTime threshold;
+
+    @BeforeEach
+    void seed() throws InterruptedException {
+        fixture.executeWithoutResult(em -> {
+            Team team = new Team("archiveTeam");
+            em.persist(team);
+            for (int i = 1; i <= 3; i++) {
+                Member member = new Member("archiveOld" + i, i * 10, team);
+                em.persist(member);
+                oldIds.add(member.getId());
+            }
+        });
+        Thread.sleep(10);
+        threshold = LocalDateTime.now();
+        Thread.sleep(10);
+        fixture.executeWithoutResult(em -> {
+            for (int i = 1; i <= 2; i++) {
+                Member member = new Member("archiveNew" + i, i * 5);
+                em.persist(member);
+                newIds.add(member.getId());
+            }
+        });
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fixture.deleteByPrefix("archive");
+    }
+
+    @Test
+    void archiveAndFallback() throws IOException {
+        long archived = archiver.archive(threshold);
+
+        assertThat(archived).isGreaterThanOrEqualTo(3);
+        assertThat(em.createQuery("select count(m) from Member m where m.username like 'archiveOld%'", Long.class)
+                .getSingleResult()).isZero();
+        assertThat(memberRepository.findAllById(newIds)).hasSize(2);
+
+        // 단건 조회는 아카이브로 넘어간다
+        MemberDto member = reader.findById(oldIds.get(0)).orElseThrow();
+        assertThat(member.getUsername()).isEqualTo("archiveOld1");
+        assertThat(member.getTeamName()).isEqualTo("archiveTeam");
+        ArchivedMember archivedMember = archive.findById(oldIds.get(1)).orElseThrow();
+        assertThat(archivedMember.getAge()).isEqualTo(20);
+        assertThat(archivedMember.getCreatedDate()).isBefore(threshold);
+        assertThat(reader.findById(newIds.get(0))).map(MemberDto::getUsername).contains("archiveNew1");
+        assertThat(reader.findById(-1L)).isEmpty();
+
+        // 목록은 hot + cold 를 하나로 정렬한다
+        Page<MemberDto> byId = reader.findAll(Pageable.unpaged(Sort.by("id")));
+        assertThat(byId.getContent()).extracting(MemberDto::getUsername).filteredOn(name -> name.startsWith("archive"))
+                .containsExactly("archiveOld1", "archiveOld2", "archiveOld3", "archiveNew1", "archiveNew2");
+        assertThat(byId.getTotalElements()).isEqualTo(memberRepository.count() + archive.count());
+
+        Page<MemberDto> byAge = reader.findAll(Pageable.unpaged(Sort.by(Sort.Direction.DESC, "age")));
+        assertThat(byAge.getContent()).extracting(MemberDto::getUsername).filteredOn(name -> name.startsWith("archive"))
+                .containsExactly("archiveOld3", "archiveOld2", "archiveOld1", "archiveNew2", "archiveNew1");
+
+        // 아카이브가 있어도 기존 정렬 속성을 그대로 받는다. teamName 정렬은 팀 테이블의 현재 이름으로 정렬한다
+        Page<MemberDto> byTeamName = reader.findAll(Pageable.unpaged(Sort.by(Sort.Direction.DESC, "team.name")));
+        assertThat(byTeamName.getContent()).extracting(MemberDto::getUsername).filteredOn(name -> name.startsWith("archive"))
+                .containsExactly("archiveOld1", "archiveOld2", "archiveOld3", "archiveNew1", "archiveNew2");
+        List<String> byCreated = reader.findAll(Pageable.unpaged(Sort.by(Sort.Direction.DESC, "createdDate"))).getContent().stream()
+                .map(MemberDto::getUsername)
+                .filter(name -> name.startsWith("archive"))
+                .toList();
+        assertThat(byCreated.subList(0, 2)).containsExactlyInAnyOrder("archiveNew1", "archiveNew2");
+        assertThat(byCreated.subList(2, 5)).containsExactlyInAnyOrder("archiveOld1", "archiveOld2", "archiveOld3");
+        assertThatThrownBy(() -> reader.findAll(PageRequest.of(0, 10, Sort.by("unknown"))))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        // 검색, cursor, fields 목록도 아카이브를 본다
+        MemberSearchCondition byTeam = new MemberSearchCondition();
+        byTeam.setTeamName("archiveTeam");
+        byTeam.setAgeGoe(20);
+        Page<MemberDto> searched = reader.search(byTeam, PageRequest.of(0, 10, Sort.by("age")));
+        assertThat(searched.getContent()).extracting(MemberDto::getUsername).containsExactly("archiveOld2", "archiveOld3");
+        assertThat(searched.getContent()).extracting(MemberDto::getTeamName).containsOnly("archiveTeam");
+        assertThat(searched.getTotalElements()).isEqualTo(2);
+
+        MemberSearchCondition byUsername = new MemberSearchCondition();
+        byUsername.setUsername("archiveOld1");
+        assertThat(reader.search(byUsername, PageRequest.of(0, 10)).getContent())
+                .extracting(MemberDto::getId, MemberDto::getTeamName)
+                .containsExactly(tuple(oldIds.get(0), "archiveTeam"));
+
+        byTeam.setAgeGoe(null);
+        Slice<MemberDto> afterFirst = reader.searchByCursor(byTeam, oldIds.get(0), 2);
+        assertThat(afterFirst.getContent()).extracting(MemberDto::getUsername).containsExactly("archiveOld2", "archiveOld3");
+        assertThat(afterFirst.hasNext()).isFalse();
+
+        Page<MemberFieldRow> fields = reader.findFields(MemberField.parse("id,username,teamName"), Pageable.unpaged(Sort.by("id")));
+        assertThat(fields.getContent()).filteredOn(row -> oldIds.contains((Long) row.get("id")))
+                .extracting(row -> row.get("username"), row -> row.get("teamName"))
+                .containsExactly(tuple("archiveOld1", "archiveTeam"), tuple("archiveOld2", "archiveTeam"), tuple("archiveOld3", "archiveTeam"));
+
+        // 깊은 페이지는 거절한다
+        assertThatThrownBy(() -> reader.findAll(PageRequest.of(100_000, 10)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        // 다시 기동해도 세그먼트를 그대로 읽는다
+        MemberArchive reopened = new MemberArchive(ARCHIVE_DIR);
+        reopened.open();
+        assertThat(reopened.count()).isEqualTo(archive.count());
+        assertThat(reopened.findById(oldIds.get(2))).map(ArchivedMember::getUsername).contains("archiveOld3");
+    }
+
+    @Test
+    void segmentRoundTrip() throws IOException {
+        Path path = ARCHIVE_DIR.resolve("roundtrip.tmp");
+        LocalDateTime created = LocalDateTime.of(2020, 1, 2, 3, 4, 5, 123_456_000);
+        try (MemberSegmentWriter writer = new MemberSegmentWriter(path)) {
+            writer.append(3, "회원", 30, 7L, created, null);
+            writer.append(10, null, 0, null, null, created);
+            assertThatThrownBy(() -> writer.append(5, "x", 0, null, null, null)).isInstanceOf(IllegalArgumentException.class);
+            writer.finish();
+        }
+
+        ArchiveSegment segment = ArchiveSegment.open(path);
+        assertThat(segment.count()).isEqualTo(2);
+        assertThat(segment.indexOf(4)).isEqualTo(-1);
+
+        ArchivedMember first = segment.read(segment.indexOf(3));
+        assertThat(first.getUsername()).isEqualTo("회원");
+        assertThat(first.getTeamId()).isEqualTo(7L);
+        assertThat(first.getCreatedDate()).isEqualTo(created);
+        assertThat(first.getLastModifiedDate()).isNull();
+
+        ArchivedMember second = segment.read(segment.indexOf(10));
+        assertThat(second.getUsername()).isNull();
+        assertThat(second.getTeamId()).isNull();
+        Files.delete(path);
+    }
+
+    private static Path createTempDirectory() {
+        try {
+            return Files.createTempDirectory("member-archive");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
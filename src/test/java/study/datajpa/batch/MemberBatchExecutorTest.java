@@ -0,0 +1,88 @@
+package study.datajpa.batch;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.TestFixture;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+class MemberBatchExecutorTest {
+
+    @Autowired MemberBatchExecutor memberBatchExecutor;
+    @Autowired TestFixture fixture;
+    @PersistenceContext EntityManager em;
+
+    private Long teamId;
+
+    @BeforeEach
+    void seed() {
+        teamId = fixture.execute(em -> {
+            Team team = new Team("batchTeam");
+            em.persist(team);
+            for (int i = 0; i < 100; i++) {
+                em.persist(new Member("batch" + i, i, team));
+            }
+            return team.getId();
+        });
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fixture.deleteByPrefix("batch");
+    }
+
+    @Test
+    void ageHistogramByTeam() {
+        BatchExecution<Map<Long, long[]>> execution =
+                memberBatchExecutor.start(MemberBatchJob.ageHistogramByTeam(10, 10), 4, 7);
+
+        Map<Long, long[]> histogram = execution.join();
+
+        assertThat(histogram.get(teamId)).containsExactly(10, 10, 10, 10, 10, 10, 10, 10, 10, 10);
+        assertThat(execution.getProcessedRows()).isEqualTo(execution.getTotalRows());
+        assertThat(execution.getProgress()).isEqualTo(1.0);
+        assertThat(execution.getPartitions()).hasSize(4).allMatch(PartitionStats::isDone);
+        execution.getPartitions().forEach(partition -> System.out.println("partition = " + partition));
+    }
+
+    @Test
+    void rowChangesAreCommittedPerChunk() {
+        Long updated = memberBatchExecutor.run(new MemberBatchJob<long[]>() {
+            @Override
+            public long[] createPartial() {
+                return new long[1];
+            }
+
+            @Override
+            public void process(Member member, long[] partial) {
+                if (member.getUsername() != null && member.getUsername().startsWith("batch")) {
+                    member.setAge(member.getAge() + 1);
+                    partial[0]++;
+                }
+            }
+
+            @Override
+            public long[] merge(long[] left, long[] right) {
+                left[0] += right[0];
+                return left;
+            }
+        }, 3, 16)[0];
+
+        assertThat(updated).isEqualTo(100);
+        List<Integer> ages = em.createQuery("select m.age from Member m where m.username like 'batch%' order by m.age", Integer.class)
+                .getResultList();
+        assertThat(ages).first().isEqualTo(1);
+        assertThat(ages).last().isEqualTo(100);
+    }
+}
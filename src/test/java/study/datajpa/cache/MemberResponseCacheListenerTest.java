@@ -0,0 +1,48 @@
+package study.datajpa.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import study.datajpa.TestFixture;
+import study.datajpa.entity.Member;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+class MemberResponseCacheListenerTest {
+
+    @Autowired OffHeapResponseCache memberResponseCache;
+    @Autowired TestFixture fixture;
+
+    @AfterEach
+    void cleanUp() {
+        fixture.deleteByPrefix("cacheListener");
+    }
+
+    @Test
+    void updateAndDeleteInvalidate() throws Exception {
+        Long id = fixture.execute(em -> {
+            Member member = new Member("cacheListener1", 10);
+            em.persist(member);
+            return member.getId();
+        });
+
+        cache(id);
+        fixture.executeWithoutResult(em -> em.find(Member.class, id).setAge(11));
+        assertThat(memberResponseCache.writeTo(id, new MockHttpServletResponse())).isFalse();
+
+        cache(id);
+        fixture.executeWithoutResult(em -> em.remove(em.find(Member.class, id)));
+        assertThat(memberResponseCache.writeTo(id, new MockHttpServletResponse())).isFalse();
+    }
+
+    private void cache(long id) throws Exception {
+        byte[] body = ("{\"id\":" + id + "}").getBytes(StandardCharsets.UTF_8);
+        assertThat(memberResponseCache.put(id, "application/json", body, memberResponseCache.generation(id))).isTrue();
+        assertThat(memberResponseCache.writeTo(id, new MockHttpServletResponse())).isTrue();
+    }
+}
@@ -0,0 +1,123 @@
+package study.datajpa.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+class OffHeapResponseCacheTest {
+
+    private static final String TEXT = "text/plain;charset=UTF-8";
+
+    @Test
+    void putAndWrite() throws Exception {
+        OffHeapResponseCache cache = new OffHeapResponseCache(1024, 10);
+        cache.put(1L, TEXT, bytes("회원1"), cache.generation(1L));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertThat(cache.writeTo(1L, response)).isTrue();
+        assertThat(response.getContentAsString(StandardCharsets.UTF_8)).isEqualTo("회원1");
+        assertThat(response.getContentType()).isEqualTo(TEXT);
+        assertThat(cache.writeTo(2L, new MockHttpServletResponse())).isFalse();
+    }
+
+    @Test
+    void invalidateAndStaleGeneration() throws Exception {
+        OffHeapResponseCache cache = new OffHeapResponseCache(1024, 10);
+        long generation = cache.generation(1L);
+        cache.put(1L, TEXT, bytes("before"), generation);
+
+        cache.invalidate(1L);
+
+        assertThat(cache.writeTo(1L, new MockHttpServletResponse())).isFalse();
+        // 무효화 전에 만든 응답은 저장하지 않는다
+        assertThat(cache.put(1L, TEXT, bytes("stale"), generation)).isFalse();
+        assertThat(cache.put(1L, TEXT, bytes("after"), cache.generation(1L))).isTrue();
+        assertThat(body(cache, 1L)).isEqualTo("after");
+    }
+
+    @Test
+    void invalidateOnlyBlocksSameStripe() throws Exception {
+        OffHeapResponseCache cache = new OffHeapResponseCache(1024, 10);
+        long generation1 = cache.generation(1L);
+        long generation2 = cache.generation(2L);
+
+        cache.invalidate(2L);
+
+        // 다른 회원의 무효화는 캐시 채우기를 막지 않는다
+        assertThat(cache.put(1L, TEXT, bytes("member1"), generation1)).isTrue();
+        assertThat(cache.put(2L, TEXT, bytes("member2"), generation2)).isFalse();
+    }
+
+    @Test
+    void invalidateAll() throws Exception {
+        OffHeapResponseCache cache = new OffHeapResponseCache(1024, 10);
+        long generation = cache.generation(1L);
+        cache.put(1L, TEXT, bytes("member1"), generation);
+        cache.put(2L, TEXT, bytes("member2"), cache.generation(2L));
+
+        cache.invalidateAll();
+
+        assertThat(cache.size()).isZero();
+        assertThat(cache.usedBytes()).isZero();
+        assertThat(cache.writeTo(1L, new MockHttpServletResponse())).isFalse();
+        assertThat(cache.put(1L, TEXT, bytes("stale"), generation)).isFalse();
+        assertThat(cache.put(1L, TEXT, bytes("after"), cache.generation(1L))).isTrue();
+        assertThat(body(cache, 1L)).isEqualTo("after");
+    }
+
+    @Test
+    void evictsOldestWhenFull() throws Exception {
+        OffHeapResponseCache cache = new OffHeapResponseCache(256, 3);
+        for (long id = 1; id <= 4; id++) {
+            cache.put(id, TEXT, bytes("member" + id), cache.generation(id));
+        }
+
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.writeTo(1L, new MockHttpServletResponse())).isFalse();
+        assertThat(body(cache, 4L)).isEqualTo("member4");
+    }
+
+    @Test
+    void matchesLatestValueUnderChurn() throws Exception {
+        OffHeapResponseCache cache = new OffHeapResponseCache(4096, 64);
+        Map<Long, String> latest = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            long id = 1 + random.nextInt(200);
+            if (random.nextInt(10) == 0) {
+                cache.invalidate(id);
+                latest.remove(id);
+            } else {
+                String value = "member" + id + "-" + "x".repeat(random.nextInt(100));
+                cache.put(id, TEXT, bytes(value), cache.generation(id));
+                latest.put(id, value);
+            }
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(64);
+        assertThat(cache.usedBytes()).isLessThanOrEqualTo(cache.capacityBytes());
+        for (long id = 1; id <= 200; id++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            if (cache.writeTo(id, response)) {
+                assertThat(response.getContentAsString(StandardCharsets.UTF_8)).isEqualTo(latest.get(id));
+            }
+        }
+    }
+
+    private static String body(OffHeapResponseCache cache, long id) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        cache.writeTo(id, response);
+        return response.getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,129 @@
+package study.datajpa.datagen;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+class DataGeneratorTest {
+
+    private static final int MEMBERS = 25_000;
+    private static final int TEAMS = 50;
+
+    @Autowired DataGenerator generator;
+    @Autowired MemberRepository memberRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from member where username like 'dg%'");
+        jdbcTemplate.update("delete from team where name like 'dgTeam%'");
+        jdbcTemplate.update("delete from item where created_date < ?", LocalDateTime.of(2002, 1, 1, 0, 0));
+    }
+
+    @Test
+    void sameSeedSameRows() {
+        DataGenReport serial = generator.generate(spec("dgA", 1, 7));
+        DataGenReport parallel = generator.generate(spec("dgB", 4, 500));
+
+        List<String> serialRows = rows("dgA", serial);
+        List<String> parallelRows = rows("dgB", parallel);
+        assertThat(serialRows).hasSize(MEMBERS);
+        assertThat(parallelRows).isEqualTo(serialRows);
+    }
+
+    @Test
+    void distributions() {
+        DataGenReport report = generator.generate(spec("dgA", 4, 1000));
+
+        Long distinctUsernames = jdbcTemplate.queryForObject(
+                "select count(distinct username) from member where username like 'dgA%'", Long.class);
+        assertThat(distinctUsernames).isLessThanOrEqualTo(300);
+
+        Map<String, Object> age = jdbcTemplate.queryForMap(
+                "select min(age) mn, max(age) mx, avg(cast(age as double)) av from member where username like 'dgA%'");
+        assertThat(((Number) age.get("mn")).intValue()).isGreaterThanOrEqualTo(0);
+        assertThat(((Number) age.get("mx")).intValue()).isLessThanOrEqualTo(100);
+        assertThat(((Number) age.get("av")).doubleValue()).isBetween(30.0, 40.0);
+
+        // 가장 큰 팀은 평균 팀 크기보다 훨씬 크다
+        Long largestTeam = jdbcTemplate.queryForObject(
+                "select max(c) from (select count(*) c from member where username like 'dgA%' and team_id is not null group by team_id)", Long.class);
+        assertThat(largestTeam).isGreaterThan(3L * MEMBERS / TEAMS);
+
+        // createdDate 는 id 순으로 증가하고, lastModifiedDate 는 createdDate 보다 앞서지 않는다
+        List<Timestamp[]> audit = jdbcTemplate.query(
+                "select created_date, last_modified_date from member where username like 'dgA%' order by member_id",
+                (rs, rowNum) -> new Timestamp[]{rs.getTimestamp(1), rs.getTimestamp(2)});
+        for (int i = 0; i < audit.size(); i++) {
+            assertThat(audit.get(i)[1]).isAfterOrEqualTo(audit.get(i)[0]);
+            if (i > 0) {
+                assertThat(audit.get(i)[0]).isAfterOrEqualTo(audit.get(i - 1)[0]);
+            }
+        }
+        assertThat(jdbcTemplate.queryForObject("select count(*) from item where created_date < ?", Long.class,
+                LocalDateTime.of(2002, 1, 1, 0, 0))).isEqualTo(100L);
+
+        // 애플리케이션이 이어서 저장해도 생성한 id 구간과 겹치지 않는다
+        Member saved = memberRepository.save(new Member("dgSaved", 1));
+        assertThat(saved.getId()).isGreaterThanOrEqualTo(report.getFirstMemberId() + MEMBERS);
+    }
+
+    @Test
+    void appendWithSameSeed() {
+        DataGenReport first = generator.generate(spec("dgA", 2, 1000));
+        DataGenReport second = generator.generate(spec("dgA", 2, 1000));
+
+        // 팀 이름과 item id 가 앞선 실행과 겹치지 않는다
+        assertThat(second.getFirstTeamId()).isGreaterThanOrEqualTo(first.getFirstTeamId() + TEAMS);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from team where name like 'dgTeamdgA%'", Long.class))
+                .isEqualTo(2L * TEAMS);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from member where username like 'dgA%'", Long.class))
+                .isEqualTo(2L * MEMBERS);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from item where created_date < ?", Long.class,
+                LocalDateTime.of(2002, 1, 1, 0, 0))).isEqualTo(200L);
+    }
+
+    private static DataGenSpec spec(String prefix, int workers, int batchSize) {
+        DataGenSpec spec = new DataGenSpec();
+        spec.setSeed(7);
+        spec.setTeams(TEAMS);
+        spec.setMembers(MEMBERS);
+        spec.setItems(prefix.equals("dgA") ? 100 : 0);
+        spec.setWorkers(workers);
+        spec.setBatchSize(batchSize);
+        spec.setTeamSkew(1.2);
+        spec.setNoTeamRatio(0.05);
+        spec.setUsernameCardinality(300);
+        spec.setUsernamePrefix(prefix);
+        spec.setTeamNamePrefix("dgTeam" + prefix);
+        spec.setCreatedFrom("2001-01-01T00:00:00");
+        spec.setCreatedTo("2001-12-31T00:00:00");
+        return spec;
+    }
+
+    // 접두사와 id 를 생성 시작점 기준으로 바꿔서 비교한다
+    private List<String> rows(String prefix, DataGenReport report) {
+        return jdbcTemplate.query(
+                "select member_id, username, age, team_id, created_date, last_modified_date, created_by, last_modified_by" +
+                        " from member where username like ? order by member_id",
+                (rs, rowNum) -> {
+                    long teamId = rs.getLong(4);
+                    String team = rs.wasNull() ? "-" : String.valueOf(teamId - report.getFirstTeamId());
+                    return (rs.getLong(1) - report.getFirstMemberId()) + "|" + rs.getString(2).substring(prefix.length())
+                            + "|" + rs.getInt(3) + "|" + team + "|" + rs.getTimestamp(5) + "|" + rs.getTimestamp(6)
+                            + "|" + rs.getString(7) + "|" + rs.getString(8);
+                }, prefix + "%");
+    }
+}
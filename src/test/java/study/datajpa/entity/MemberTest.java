@@ -24,8 +24,9 @@ class MemberTest {
 
     @Test
     public void testEntity() {
-        Team teamA = new Team("teamA");
-        Team teamB = new Team("teamB");
+        // 커밋되는 데이터라 다른 테스트의 teamA, teamB 와 이름(unique)이 겹치지 않게 한다
+        Team teamA = new Team("entityTeamA");
+        Team teamB = new Team("entityTeamB");
         em.persist(teamA);
         em.persist(teamB);
 
@@ -0,0 +1,52 @@
+package study.datajpa.hotkey;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class HotKeyTrackerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final HotKeyTracker tracker = new HotKeyTracker("test", Duration.ofSeconds(60), 6, 4, 4096, 64, now::get);
+
+    @Test
+    void topKeysAndHitRatio() {
+        // key 0..9 가 접근의 절반, 나머지 절반은 key 10..9999 에 고르게
+        Random random = new Random(1);
+        for (int i = 0; i < 100_000; i++) {
+            long key = i % 2 == 0 ? random.nextInt(10) : 10 + random.nextInt(9_990);
+            tracker.record(key);
+        }
+
+        assertThat(tracker.total()).isEqualTo(100_000);
+        assertThat(tracker.top(10)).extracting(HotKey::getKey)
+                .containsExactlyInAnyOrder("0", "1", "2", "3", "4", "5", "6", "7", "8", "9");
+        assertThat(tracker.estimate(3L)).isGreaterThanOrEqualTo(4_000);
+        assertThat(tracker.hitRatio(10)).isBetween(0.49, 0.55);
+        assertThat(tracker.hitRatio(1)).isLessThan(tracker.hitRatio(10));
+    }
+
+    @Test
+    void slidingWindow() {
+        for (int i = 0; i < 100; i++) {
+            tracker.record("old");
+        }
+        now.addAndGet(30_000);
+        for (int i = 0; i < 10; i++) {
+            tracker.record("new");
+        }
+        assertThat(tracker.estimate("old")).isEqualTo(100);
+        assertThat(tracker.top(1)).extracting(HotKey::getKey).containsExactly("old");
+
+        // old 를 기록한 구간이 윈도우(60초) 밖으로 밀려난다
+        now.addAndGet(40_000);
+        assertThat(tracker.estimate("old")).isZero();
+        assertThat(tracker.estimate("new")).isEqualTo(10);
+        assertThat(tracker.total()).isEqualTo(10);
+        assertThat(tracker.top(5)).extracting(HotKey::getKey).containsExactly("new");
+    }
+}
@@ -0,0 +1,115 @@
+package study.datajpa.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.TestFixture;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 녹화를 켜고 조회/수정/지연 로딩을 한 뒤 RecordingFile 로 다시 읽어서 이벤트를 확인한다.
+ * 운영에서는 -XX:StartFlightRecording=filename=app.jfr 로 녹화하고 jfr print --events 'study.datajpa.*' app.jfr 로 본다.
+ */
+@SpringBootTest
+class JfrEventsTest {
+
+    private static final List<String> EVENTS = List.of(
+            "study.datajpa.RepositoryInvocation",
+            "study.datajpa.Transaction",
+            "study.datajpa.TransactionCommit",
+            "study.datajpa.HibernateFlush",
+            "study.datajpa.LazyInitialization");
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired TestFixture fixture;
+
+    @AfterEach
+    void cleanUp() {
+        fixture.deleteByPrefix("jfr");
+    }
+
+    @Test
+    void recordsEvents(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("sample.jfr");
+        try (Recording recording = new Recording()) {
+            EVENTS.forEach(name -> recording.enable(name).withoutThreshold());
+            recording.start();
+
+            fixture.executeWithoutResult(em -> {
+                Team team = new Team("jfrTeam");
+                em.persist(team);
+                em.persist(new Member("jfr1", 10, team));
+                em.persist(new Member("jfr2", 20, team));
+            });
+            fixture.executeWithoutResult(em -> {
+                Member member = memberRepository.findByUsername("jfr1").get(0);
+                member.setAge(11);
+                Team team = member.getTeam();
+                // 바이트코드 향상을 켜면 HibernateProxy 가 아니라 초기화되지 않은 Team 인스턴스다
+                assertThat(Hibernate.isInitialized(team)).isFalse();
+                assertThat(team.getName()).isEqualTo("jfrTeam");
+                assertThat(team.getMembers()).hasSize(2);
+            });
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        printSummary(events);
+
+        assertThat(events).filteredOn(e -> is(e, "RepositoryInvocation") && "findByUsername".equals(e.getString("method")))
+                .singleElement()
+                .satisfies(e -> {
+                    assertThat(e.getString("repository")).isEqualTo("MemberRepository");
+                    assertThat(e.getString("arguments")).isEqualTo("String");
+                    assertThat(e.getLong("rows")).isEqualTo(1);
+                });
+        assertThat(events).filteredOn(e -> is(e, "Transaction") && "COMMITTED".equals(e.getString("outcome")))
+                .hasSizeGreaterThanOrEqualTo(2);
+        assertThat(events).filteredOn(e -> is(e, "TransactionCommit")).hasSizeGreaterThanOrEqualTo(2);
+        assertThat(events).filteredOn(e -> is(e, "HibernateFlush") && !e.getBoolean("auto"))
+                .anySatisfy(e -> assertThat(e.getInt("dirtyCount")).isEqualTo(1));
+        assertThat(events).filteredOn(e -> is(e, "LazyInitialization"))
+                .extracting(e -> e.getString("role"))
+                .contains("study.datajpa.entity.Team (proxy)", "study.datajpa.entity.Team.members");
+    }
+
+    private static boolean is(RecordedEvent event, String name) {
+        return event.getEventType().getName().equals("study.datajpa." + name);
+    }
+
+    /**
+     * 이벤트 종류별 건수와 합계 시간
+     */
+    private static void printSummary(List<RecordedEvent> events) {
+        Map<String, long[]> summary = new TreeMap<>();
+        for (RecordedEvent event : events) {
+            String key = event.getEventType().getName();
+            if (event.hasField("method")) {
+                key += " " + event.getString("repository") + "." + event.getString("method");
+            }
+            long[] stat = summary.computeIfAbsent(key, k -> new long[2]);
+            stat[0]++;
+            stat[1] += event.getDuration().toNanos();
+        }
+        summary.forEach((key, stat) -> System.out.printf("%-70s count=%4d total=%8d us%n",
+                key, stat[0], stat[1] / 1_000));
+    }
+}
@@ -0,0 +1,96 @@
+package study.datajpa.reactive;
+
+import io.r2dbc.spi.ConnectionFactory;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import study.datajpa.TestFixture;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberRow;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+class MemberReactiveRepositoryTest {
+
+    @Autowired MemberReactiveRepository memberReactiveRepository;
+    @Autowired TestFixture fixture;
+    @Autowired ApplicationContext context;
+
+    @BeforeEach
+    void seed() {
+        fixture.executeWithoutResult(em -> {
+            Team team = new Team("reactiveTeam");
+            em.persist(team);
+            em.persist(new Member("reactive1", 10, team));
+            em.persist(new Member("reactive2", 20, team));
+            em.persist(new Member("reactive3", 30));
+        });
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fixture.deleteByPrefix("reactive");
+    }
+
+    @Test
+    void jpaStaysConfigured() {
+        // ConnectionFactory 빈이 있으면 DataSourceAutoConfiguration 이 빠진다
+        assertThat(context.getBeanNamesForType(ConnectionFactory.class)).isEmpty();
+        assertThat(context.getBeansOfType(DataSource.class)).isNotEmpty();
+        assertThat(context.getBeansOfType(DataSourceProperties.class)).hasSize(1);
+        assertThat(context.getBeansOfType(EntityManagerFactory.class)).isNotEmpty();
+    }
+
+    @Test
+    void findAll() {
+        List<MemberRow> rows = memberReactiveRepository.findAll()
+                .filter(row -> row.getUsername().startsWith("reactive"))
+                .collectList()
+                .block();
+
+        assertThat(rows).extracting("username").containsExactly("reactive1", "reactive2", "reactive3");
+        assertThat(rows).extracting("age").containsExactly(10, 20, 30);
+    }
+
+    @Test
+    void findByUsername() {
+        List<MemberRow> rows = memberReactiveRepository.findByUsername("reactive2").collectList().block();
+
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).getAge()).isEqualTo(20);
+        assertThat(rows.get(0).getTeamId()).isNotNull();
+    }
+
+    @Test
+    void findMemberDto() {
+        List<MemberDto> dtos = memberReactiveRepository.findMemberDto()
+                .filter(dto -> dto.getUsername().startsWith("reactive"))
+                .collectList()
+                .block();
+
+        assertThat(dtos).extracting("username").containsExactlyInAnyOrder("reactive1", "reactive2");
+        assertThat(dtos).extracting("teamName").containsOnly("reactiveTeam");
+    }
+
+    @Test
+    void takeCancelsRemainingRows() {
+        List<MemberRow> first = memberReactiveRepository.findAll()
+                .filter(row -> row.getUsername().startsWith("reactive"))
+                .take(1)
+                .collectList()
+                .block();
+
+        assertThat(first).extracting("username").containsExactly("reactive1");
+    }
+}
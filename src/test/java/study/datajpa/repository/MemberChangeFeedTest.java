@@ -0,0 +1,99 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.TestFixture;
+import study.datajpa.dto.MemberChange;
+import study.datajpa.dto.MemberChangePage;
+import study.datajpa.entity.Member;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = "change-feed.settle-time=0s")
+class MemberChangeFeedTest {
+
+    @Autowired MemberChangeFeed feed;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TestFixture fixture;
+
+    private List<Long> ids = List.of();
+
+    @AfterEach
+    void cleanUp() {
+        if (!ids.isEmpty()) {
+            fixture.executeWithoutResult(em -> em.createQuery("delete from MemberTombstone d where d.memberId in :ids")
+                    .setParameter("ids", ids)
+                    .executeUpdate());
+        }
+        fixture.deleteByPrefix("feed");
+    }
+
+    @Test
+    void resumesFromCursor() throws InterruptedException {
+        String cursor = drain(null);
+
+        Thread.sleep(5);
+        ids = fixture.execute(em -> {
+            Member feed1 = new Member("feed1", 1);
+            Member feed2 = new Member("feed2", 1000);
+            Member feed3 = new Member("feed3", 3);
+            em.persist(feed1);
+            em.persist(feed2);
+            em.persist(feed3);
+            return List.of(feed1.getId(), feed2.getId(), feed3.getId());
+        });
+
+        MemberChangePage created = feed.changes(cursor, 10);
+        assertThat(created.getChanges()).extracting(MemberChange::getId).containsExactlyElementsOf(ids);
+        assertThat(created.getChanges()).extracting(MemberChange::getType).containsOnly(MemberChange.Type.UPSERT);
+        assertThat(created.isHasMore()).isFalse();
+
+        // size 보다 많으면 다음 페이지로 이어진다
+        MemberChangePage first = feed.changes(cursor, 2);
+        assertThat(first.isHasMore()).isTrue();
+        assertThat(feed.changes(first.getNext(), 2).getChanges()).extracting(MemberChange::getId).containsExactly(ids.get(2));
+
+        Thread.sleep(5);
+        fixture.executeWithoutResult(em -> {
+            em.find(Member.class, ids.get(0)).setUsername("feed1b");
+            em.remove(em.find(Member.class, ids.get(2)));
+        });
+        fixture.executeWithoutResult(em -> memberRepository.bulkAge(1000));
+
+        MemberChangePage changed = feed.changes(created.getNext(), 10);
+        // bulkAge 는 다른 회원도 바꿀 수 있다
+        assertThat(changed.getChanges())
+                .isSortedAccordingTo(Comparator.comparing(MemberChange::getModifiedAt).thenComparing(MemberChange::getId))
+                .filteredOn(change -> ids.contains(change.getId()))
+                .extracting(MemberChange::getId, MemberChange::getType)
+                .containsExactlyInAnyOrder(
+                        tuple(ids.get(0), MemberChange.Type.UPSERT),
+                        tuple(ids.get(1), MemberChange.Type.UPSERT),
+                        tuple(ids.get(2), MemberChange.Type.DELETE));
+        assertThat(changed.getChanges()).filteredOn(change -> change.getId().equals(ids.get(1)))
+                .extracting(MemberChange::getAge).containsExactly(1001);
+
+        MemberChangePage empty = feed.changes(changed.getNext(), 10);
+        assertThat(empty.getChanges()).isEmpty();
+        assertThat(empty.getNext()).isEqualTo(changed.getNext());
+    }
+
+    @Test
+    void invalidCursor() {
+        assertThatThrownBy(() -> feed.changes("not-a-cursor", 10)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private String drain(String since) {
+        MemberChangePage page;
+        do {
+            page = feed.changes(since, 1000);
+            since = page.getNext();
+        } while (page.isHasMore());
+        return since;
+    }
+}
@@ -2,6 +2,7 @@ package study.datajpa.repository;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceUnitUtil;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,11 +11,14 @@ import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberFieldRow;
+import study.datajpa.dto.MemberSearchCondition;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -186,6 +190,58 @@ class MemberRepositoryTest {
         }
     }
 
+    @Test
+    public void fetchPlan() {
+        Team teamA = new Team("teamA");
+        teamRepository.save(teamA);
+        Member member1 = memberRepository.save(new Member("member1", 10, teamA));
+
+        em.flush();
+        em.clear();
+
+        PersistenceUnitUtil unitUtil = em.getEntityManagerFactory().getPersistenceUnitUtil();
+        Member lazy = memberRepository.findListByUsername("member1").get(0);
+        assertThat(unitUtil.isLoaded(lazy.getTeam())).isFalse();
+        em.clear();
+
+        FetchPlan plan = FetchPlan.attributes("team");
+        // 파생 쿼리(Criteria), @Query JPQL, @NamedQuery, CRUD 조회
+        List<Supplier<Member>> queries = List.of(
+                () -> memberRepository.findListByUsername("member1").get(0),
+                () -> memberRepository.findByNames(List.of("member1")).get(0),
+                () -> memberRepository.findByUsername("member1").get(0),
+                // CRUD 조회 (find, Criteria)
+                () -> memberRepository.findById(member1.getId()).get(),
+                () -> memberRepository.findAllById(List.of(member1.getId())).get(0));
+        for (Supplier<Member> query : queries) {
+            Member fetched = FetchPlanHolder.with(plan, query);
+            assertThat(unitUtil.isLoaded(fetched.getTeam())).isTrue();
+            em.clear();
+        }
+
+        // count 쿼리, Member 가 아닌 결과와 네이티브 쿼리에는 걸지 않는다
+        Page<Member> page = FetchPlanHolder.with(plan, () -> memberRepository.findByAge(10, PageRequest.of(0, 10)));
+        assertThat(page.getTotalElements()).isGreaterThanOrEqualTo(1);
+        FetchPlanHolder.with(plan, () -> memberRepository.findMemberDto());
+        em.clear();
+        Member nativeMember = FetchPlanHolder.with(plan, () -> memberRepository.findByNativeQuery("member1"));
+        assertThat(unitUtil.isLoaded(nativeMember.getTeam())).isFalse();
+    }
+
+    @Test
+    public void fetchPlanParse() {
+        assertThat(FetchPlan.parse("batch:50").toString()).isEqualTo("batch:50");
+        assertThat(FetchPlan.parse("team,team.members").toString()).isEqualTo("team,team.members");
+        assertThatThrownBy(() -> FetchPlan.parse("batch:abc")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FetchPlan.parse("batch:0")).isInstanceOf(IllegalArgumentException.class);
+
+        FetchPlan.parse("team,team.members").validate(em);
+        FetchPlan.parse("graph:Member.all").validate(em);
+        assertThatThrownBy(() -> FetchPlan.parse("tema").validate(em)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FetchPlan.parse("username.team").validate(em)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FetchPlan.parse("graph:Member.none").validate(em)).isInstanceOf(IllegalArgumentException.class);
+    }
+
     @Test
     public void queryHint() {
         Member member1 = memberRepository.save(new Member("member1", 10));
@@ -236,6 +292,28 @@ class MemberRepositoryTest {
         assertThat(result.size()).isEqualTo(1);
     }
 
+    @Test
+    public void specCompiled() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+
+        em.persist(new Member("m1", 0, teamA));
+        em.persist(new Member("m2", 0, teamA));
+
+        em.flush();
+        em.clear();
+
+        List<Member> m1 = memberRepository.findCompiled(MemberSpec.username("m1").and(MemberSpec.teamName("teamA")));
+        List<Member> m2 = memberRepository.findCompiled(MemberSpec.username("m2").and(MemberSpec.teamName("teamA")));
+        List<Member> all = memberRepository.findCompiled(MemberSpec.username("m1").or(MemberSpec.username("m2")));
+        List<Member> none = memberRepository.findCompiled(MemberSpec.username("m1").and(MemberSpec.teamName("teamB")));
+
+        assertThat(m1).extracting("username").containsExactly("m1");
+        assertThat(m2).extracting("username").containsExactly("m2");
+        assertThat(all).hasSize(2);
+        assertThat(none).isEmpty();
+    }
+
     @Test
     public void queryByExample() {
         Team teamA = new Team("teamA");
@@ -305,4 +383,71 @@ class MemberRepositoryTest {
         }
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void search() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+
+        em.flush();
+        em.clear();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+        condition.setTeamName("teamB");
+
+        Page<MemberDto> result = memberRepository.search(condition, PageRequest.of(0, 1, Sort.by("age")));
+
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        assertThat(result.getContent()).extracting("username").containsExactly("member3");
+        assertThat(result.getContent()).extracting("teamName").containsExactly("teamB");
+    }
+
+    @Test
+    public void searchByCursor() {
+        for (int i = 0; i < 5; i++) {
+            memberRepository.save(new Member("member" + i, 10));
+        }
+        em.flush();
+        em.clear();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeLoe(10);
+
+        Slice<MemberDto> first = memberRepository.searchByCursor(condition, null, 3);
+        Long cursor = first.getContent().get(first.getContent().size() - 1).getId();
+        Slice<MemberDto> second = memberRepository.searchByCursor(condition, cursor, 3);
+
+        assertThat(first.getContent()).extracting("username").containsExactly("member0", "member1", "member2");
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.getContent()).extracting("username").containsExactly("member3", "member4");
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    public void findFields() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("m1", 10, teamA));
+        em.persist(new Member("m2", 20, teamA));
+
+        em.flush();
+        em.clear();
+
+        Page<MemberFieldRow> result = memberRepository.findFields(
+                MemberField.parse("username,teamName"), PageRequest.of(0, 10, Sort.by("username")));
+
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        MemberFieldRow row = result.getContent().get(0);
+        assertThat(row.get("username")).isEqualTo("m1");
+        assertThat(row.get("teamName")).isEqualTo("teamA");
+        assertThat(row.get("age")).isNull();
+    }
+}
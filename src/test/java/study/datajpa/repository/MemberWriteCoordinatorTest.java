@@ -0,0 +1,76 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.entity.Member;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+class MemberWriteCoordinatorTest {
+
+    @Autowired MemberWriteCoordinator memberWriteCoordinator;
+    @Autowired MemberRepository memberRepository;
+
+    private final List<Long> savedIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllById(savedIds);
+    }
+
+    @Test
+    void concurrentSaves() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<CompletableFuture<Member>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Member member = new Member("group" + i, i);
+            futures.add(CompletableFuture.supplyAsync(() -> memberWriteCoordinator.save(member), executor)
+                    .thenCompose(future -> future));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            Member saved = futures.get(i).get(10, TimeUnit.SECONDS);
+            savedIds.add(saved.getId());
+            assertThat(saved.getId()).isNotNull();
+            assertThat(saved.getUsername()).isEqualTo("group" + i);
+        }
+        executor.shutdown();
+
+        assertThat(memberRepository.findAllById(savedIds)).hasSize(200);
+    }
+
+    @Test
+    void update() throws Exception {
+        Member saved = memberWriteCoordinator.save(new Member("before", 10)).get(10, TimeUnit.SECONDS);
+        savedIds.add(saved.getId());
+
+        Member updated = memberWriteCoordinator.update(saved.getId(), member -> member.setUsername("after"))
+                .get(10, TimeUnit.SECONDS);
+
+        assertThat(updated.getUsername()).isEqualTo("after");
+        assertThat(memberRepository.findById(saved.getId()).get().getUsername()).isEqualTo("after");
+    }
+
+    @Test
+    void failureIsReportedToItsOwnCaller() throws Exception {
+        CompletableFuture<Member> missing = memberWriteCoordinator.update(-1L, member -> member.setAge(1));
+        CompletableFuture<Member> ok = memberWriteCoordinator.save(new Member("ok", 1));
+
+        Member saved = ok.get(10, TimeUnit.SECONDS);
+        savedIds.add(saved.getId());
+
+        assertThat(saved.getId()).isNotNull();
+        assertThatThrownBy(() -> missing.get(10, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+    }
+}
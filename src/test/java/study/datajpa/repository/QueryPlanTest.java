@@ -0,0 +1,218 @@
+package study.datajpa.repository;
+
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberSearchCondition;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 리포지토리 쿼리를 실제로 실행해서 나간 select 를 H2 EXPLAIN 으로 확인한다.
+ * 인덱스를 타야 하는 쿼리가 table scan 으로 바뀌거나 기대한 인덱스를 잃으면 실패한다.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTest {
+
+    private static final int MEMBER_COUNT = 500;
+    private static final int TEAM_COUNT = 10;
+
+    // FROM "PUBLIC"."MEMBER" "M1_0" /* PUBLIC.IDX_MEMBER_USERNAME: USERNAME = 'plan1' */
+    private static final Pattern TABLE_ACCESS = Pattern.compile("\"PUBLIC\"\\.\"(\\w+)\"(?: \"?\\w+\"?)?\\s*/\\* PUBLIC\\.([\\w.]+)");
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired StatementCapture statementCapture;
+    @PersistenceContext EntityManager em;
+
+    private TransactionTemplate tx;
+
+    @BeforeAll
+    void seed() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            List<Team> teams = new ArrayList<>();
+            for (int i = 0; i < TEAM_COUNT; i++) {
+                Team team = new Team("planTeam" + i);
+                em.persist(team);
+                teams.add(team);
+            }
+            for (int i = 0; i < MEMBER_COUNT; i++) {
+                em.persist(new Member("plan" + i, i % 100, teams.get(i % TEAM_COUNT)));
+            }
+        });
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterAll
+    void cleanUp() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.username like 'plan%'").executeUpdate();
+            em.createQuery("delete from Team t where t.name like 'planTeam%'").executeUpdate();
+        });
+    }
+
+    Stream<Arguments> queries() {
+        MemberSearchCondition byUsername = new MemberSearchCondition();
+        byUsername.setUsername("plan1");
+
+        return Stream.of(
+                plan("findById", () -> memberRepository.findById(1L), Expect.index("PRIMARY_KEY")),
+                plan("findByUsernameAndAgeGreaterThan", () -> memberRepository.findByUsernameAndAgeGreaterThan("plan1", 0), Expect.anyIndex()),
+                plan("findByUsername", () -> memberRepository.findByUsername("plan1"), Expect.index("IDX_MEMBER_USERNAME")),
+                plan("findUser", () -> memberRepository.findUser("plan1", 1), Expect.anyIndex()),
+                plan("findUsernameList", () -> memberRepository.findUsernameList(), Expect.scanAllowed("MEMBER")),
+                plan("findMemberDto", () -> memberRepository.findMemberDto(), Expect.scanAllowed("MEMBER", "TEAM")),
+                plan("findMemberDtoById", () -> memberRepository.findMemberDtoById(1L), Expect.index("PRIMARY_KEY")),
+                plan("findMemberDtoByUsername", () -> memberRepository.findMemberDtoByUsername("plan1"), Expect.index("IDX_MEMBER_USERNAME")),
+                plan("findByNames", () -> memberRepository.findByNames(List.of("plan1", "plan2")), Expect.index("IDX_MEMBER_USERNAME")),
+                plan("findListByUsername", () -> memberRepository.findListByUsername("plan1"), Expect.index("IDX_MEMBER_USERNAME")),
+                plan("findMemberByUsername", () -> memberRepository.findMemberByUsername("plan1"), Expect.index("IDX_MEMBER_USERNAME")),
+                plan("findOpitonalByUsername", () -> memberRepository.findOpitonalByUsername("plan1"), Expect.index("IDX_MEMBER_USERNAME")),
+                plan("findByAge", () -> memberRepository.findByAge(10, PageRequest.of(0, 10, Sort.Direction.DESC, "username")), Expect.scanAllowed("MEMBER")),
+                plan("findMemberFetchJoin", () -> memberRepository.findMemberFetchJoin(), Expect.scanAllowed("MEMBER")),
+                plan("findAll", () -> memberRepository.findAll(), Expect.scanAllowed("MEMBER")),
+                plan("findMemberEntityGraph", () -> memberRepository.findMemberEntityGraph(), Expect.scanAllowed("MEMBER")),
+                plan("findEntityGraphByUsername", () -> memberRepository.findEntityGraphByUsername("plan1"), Expect.index("IDX_MEMBER_USERNAME")),
+                plan("findReadOnlyByUsername", () -> memberRepository.findReadOnlyByUsername("plan1"), Expect.index("IDX_MEMBER_USERNAME")),
+                plan("findLockByUsername", () -> memberRepository.findLockByUsername("plan1"), Expect.index("IDX_MEMBER_USERNAME")),
+                plan("findProjectionsByUsername", () -> memberRepository.findProjectionsByUsername("plan1", UsernameOnlyDto.class), Expect.index("IDX_MEMBER_USERNAME")),
+                plan("findByNativeQuery", () -> memberRepository.findByNativeQuery("plan1"), Expect.index("IDX_MEMBER_USERNAME")),
+                plan("findByNativeProjection", () -> memberRepository.findByNativeProjection(PageRequest.of(0, 10)), Expect.scanAllowed("MEMBER", "TEAM")),
+                plan("specification", () -> memberRepository.findAll(MemberSpec.username("plan1").and(MemberSpec.teamName("planTeam1"))), Expect.anyIndex()),
+                plan("search", () -> memberRepository.search(byUsername, PageRequest.of(0, 10)), Expect.index("IDX_MEMBER_USERNAME")),
+                plan("jpa.find", () -> memberJpaRepository.find(1L), Expect.index("PRIMARY_KEY")),
+                plan("jpa.findAll", () -> memberJpaRepository.findAll(), Expect.scanAllowed("MEMBER")),
+                plan("jpa.count", () -> memberJpaRepository.count(), Expect.scanAllowed("MEMBER")),
+                plan("jpa.findByUsername", () -> memberJpaRepository.findByUsername("plan1"), Expect.index("IDX_MEMBER_USERNAME")),
+                plan("jpa.findByPage", () -> memberJpaRepository.findByPage(10, 0, 3), Expect.index("IDX_MEMBER_AGE_USERNAME")),
+                plan("jpa.totalCount", () -> memberJpaRepository.totalCount(10), Expect.index("IDX_MEMBER_AGE_USERNAME"))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("queries")
+    void queryPlan(String name, Runnable query, Expect expect) {
+        statementCapture.clear();
+        tx.executeWithoutResult(status -> {
+            em.clear();
+            query.run();
+            status.setRollbackOnly();
+        });
+        List<String> selects = statementCapture.drain();
+        assertThat(selects).as("%s 에서 실행된 select", name).isNotEmpty();
+
+        for (String sql : selects) {
+            String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+            expect.verify(name, plan);
+        }
+        statementCapture.clear();
+    }
+
+    private static Arguments plan(String name, Runnable query, Expect expect) {
+        return Arguments.of(name, query, expect);
+    }
+
+    static class Expect {
+        private final String index;
+        private final Set<String> scanAllowed;
+
+        private Expect(String index, Set<String> scanAllowed) {
+            this.index = index;
+            this.scanAllowed = scanAllowed;
+        }
+
+        static Expect index(String index) {
+            return new Expect(index, Set.of());
+        }
+
+        static Expect anyIndex() {
+            return new Expect(null, Set.of());
+        }
+
+        static Expect scanAllowed(String... tables) {
+            return new Expect(null, Set.of(tables));
+        }
+
+        void verify(String name, String plan) {
+            Matcher matcher = TABLE_ACCESS.matcher(plan);
+            boolean found = false;
+            boolean indexUsed = index == null;
+            while (matcher.find()) {
+                found = true;
+                String table = matcher.group(1);
+                String access = matcher.group(2);
+                if (access.endsWith(".tableScan")) {
+                    assertThat(scanAllowed).as("%s: %s 테이블을 table scan 한다\n%s", name, table, plan).contains(table);
+                } else if (index != null && access.startsWith(index)) {
+                    indexUsed = true;
+                }
+            }
+            assertThat(found).as("%s: 실행 계획을 해석할 수 없다\n%s", name, plan).isTrue();
+            assertThat(indexUsed).as("%s: %s 인덱스를 사용하지 않는다\n%s", name, index, plan).isTrue();
+        }
+
+        @Override
+        public String toString() {
+            return index != null ? index : "scanAllowed=" + scanAllowed;
+        }
+    }
+
+    static class StatementCapture extends JdbcEventListener {
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onAfterExecuteQuery(PreparedStatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+            String sql = statementInformation.getSqlWithValues().trim();
+            if (sql.regionMatches(true, 0, "select", 0, 6)) {
+                statements.add(sql);
+            }
+        }
+
+        List<String> drain() {
+            List<String> result = new ArrayList<>(statements);
+            statements.clear();
+            return result;
+        }
+
+        void clear() {
+            statements.clear();
+        }
+    }
+
+    @TestConfiguration
+    static class CaptureConfig {
+        @Bean
+        StatementCapture statementCapture() {
+            return new StatementCapture();
+        }
+    }
+}
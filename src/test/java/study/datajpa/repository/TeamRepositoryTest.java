@@ -0,0 +1,69 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.TestFixture;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+class TeamRepositoryTest {
+
+    @Autowired TeamRepository teamRepository;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamNameCache teamNameCache;
+    @Autowired TestFixture fixture;
+
+    @AfterEach
+    void cleanUp() {
+        fixture.deleteByPrefix("natural");
+    }
+
+    @Test
+    void findByNameIsCachedAfterCommit() {
+        Team saved = fixture.execute(em -> teamRepository.save(new Team("naturalA")));
+        assertThat(teamNameCache.get("naturalA")).isEmpty();
+
+        Team found = teamRepository.findByName("naturalA").get();
+
+        assertThat(found.getId()).isEqualTo(saved.getId());
+        assertThat(teamNameCache.get("naturalA")).contains(saved.getId());
+        assertThat(teamRepository.findByName("naturalB")).isEmpty();
+    }
+
+    @Test
+    void renameEvictsCachedName() {
+        Team saved = fixture.execute(em -> teamRepository.save(new Team("naturalA")));
+        assertThat(teamRepository.findIdByName("naturalA")).contains(saved.getId());
+
+        fixture.executeWithoutResult(em -> teamRepository.findById(saved.getId()).get().setName("naturalB"));
+
+        assertThat(teamNameCache.get("naturalA")).isEmpty();
+        assertThat(teamRepository.findIdByName("naturalA")).isEmpty();
+        assertThat(teamRepository.findIdByName("naturalB")).contains(saved.getId());
+    }
+
+    @Test
+    void teamNameSpecFiltersOnTeamId() {
+        fixture.executeWithoutResult(em -> {
+            Team teamA = teamRepository.save(new Team("naturalA"));
+            Team teamB = teamRepository.save(new Team("naturalB"));
+            memberRepository.save(new Member("natural1", 10, teamA));
+            memberRepository.save(new Member("natural2", 20, teamB));
+        });
+
+        List<Member> byCriteria = memberRepository.findAll(MemberSpec.teamName("naturalA"));
+        List<Member> compiled = memberRepository.findCompiled(MemberSpec.teamName("naturalA"));
+        List<Member> none = memberRepository.findAll(MemberSpec.teamName("naturalC"));
+
+        assertThat(byCriteria).extracting("username").containsExactly("natural1");
+        assertThat(compiled).extracting("username").containsExactly("natural1");
+        assertThat(none).isEmpty();
+    }
+}
@@ -0,0 +1,102 @@
+package study.datajpa.shard;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import study.datajpa.dto.MemberRow;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 메모리 H2 3 개를 샤드로 사용한다.
+ */
+class ShardedMemberRepositoryTest {
+
+    private ShardRouter router;
+    private ShardedMemberRepository repository;
+    private final List<Team> teams = new ArrayList<>();
+    private final List<Member> members = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        String prefix = UUID.randomUUID().toString();
+        List<DataSource> dataSources = IntStream.range(0, 3)
+                .mapToObj(i -> (DataSource) new DriverManagerDataSource(
+                        "jdbc:h2:mem:" + prefix + "-shard" + i + ";DB_CLOSE_DELAY=-1", "sa", ""))
+                .toList();
+        router = new ShardRouter(dataSources);
+        router.initSchema();
+        repository = new ShardedMemberRepository(router);
+
+        for (int i = 0; i < 6; i++) {
+            teams.add(repository.save(new Team("team" + i)));
+        }
+        for (int i = 0; i < 30; i++) {
+            members.add(repository.save(new Member("member" + i % 10, i, teams.get(i % teams.size()))));
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        router.scatter(shard -> {
+            shard.execute("shutdown");
+            return null;
+        });
+        router.close();
+    }
+
+    @Test
+    void membersAreColocatedWithTheirTeam() {
+        for (Member member : members) {
+            assertThat(router.shardOf(member.getId())).isEqualTo(router.shardOf(member.getTeam().getId()));
+        }
+        long usedShards = teams.stream().map(team -> router.shardOf(team.getId())).distinct().count();
+        assertThat(usedShards).isGreaterThan(1);
+    }
+
+    @Test
+    void findByIdAndTeamScopedQueriesRouteToOneShard() {
+        Member member = members.get(7);
+
+        MemberRow row = repository.findById(member.getId()).get();
+
+        assertThat(row.getUsername()).isEqualTo(member.getUsername());
+        assertThat(row.getTeamId()).isEqualTo(member.getTeam().getId());
+        assertThat(repository.findByTeamId(teams.get(1).getId())).hasSize(5);
+        assertThat(repository.countByTeamId(teams.get(1).getId())).isEqualTo(5);
+    }
+
+    @Test
+    void scatterGather() {
+        assertThat(repository.count()).isEqualTo(30);
+        assertThat(repository.findByUsername("member3"))
+                .extracting(MemberRow::getAge)
+                .containsExactlyInAnyOrder(3, 13, 23);
+    }
+
+    @Test
+    void findAllMergesSortedPages() {
+        Page<MemberRow> page = repository.findAll(PageRequest.of(1, 7, Sort.by(Sort.Direction.DESC, "age")));
+
+        assertThat(page.getTotalElements()).isEqualTo(30);
+        assertThat(page.getTotalPages()).isEqualTo(5);
+        assertThat(page.getContent()).extracting(MemberRow::getAge).containsExactly(22, 21, 20, 19, 18, 17, 16);
+
+        List<MemberRow> byUsername = repository.findAll(PageRequest.of(0, 30, Sort.by("username"))).getContent();
+        assertThat(byUsername).isSortedAccordingTo(
+                Comparator.comparing(MemberRow::getUsername).thenComparing(MemberRow::getId));
+    }
+}
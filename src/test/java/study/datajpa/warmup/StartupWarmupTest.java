@@ -0,0 +1,43 @@
+package study.datajpa.warmup;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "warmup.enabled=true",
+        "warmup.requests=/hello,/members?page=0&size=5,/members/{id}",
+        "warmup.requests-per-endpoint=20",
+        "warmup.repository-passes=1"
+})
+class StartupWarmupTest {
+
+    @Autowired StartupWarmup warmup;
+    @Autowired ApplicationAvailability availability;
+
+    @Test
+    void warmUpBeforeReadiness() {
+        WarmupReport report = warmup.getReport();
+        assertThat(report).isNotNull();
+        assertThat(availability.getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+
+        // @Query 와 Member.findByUsername
+        assertThat(report.getParsedQueries()).isGreaterThan(10);
+        assertThat(report.getInvokedMethods()).isPositive();
+        assertThat(report.getPrimedConnections()).isPositive();
+        // {id} 요청은 회원 id 가 모자라면 보내지 않는다 (같은 id 는 응답 캐시가 답하므로)
+        assertThat(report.getRequests() + report.getSkippedRequests()).isEqualTo(60);
+        assertThat(report.getRequests()).isGreaterThanOrEqualTo(40);
+        assertThat(report.getMemberIds()).isLessThanOrEqualTo(22);
+        assertThat(report.getFailedRequests()).isZero();
+
+        assertThat(report.getCold().getLatencyMicros()).containsOnlyKeys("/hello", "/members?page=0&size=5", "/members/{id}");
+        assertThat(report.getWarm().getLatencyMicros()).containsOnlyKeys("/hello", "/members?page=0&size=5", "/members/{id}");
+        // 워밍업이 끝난 뒤의 요청은 캐시된 계획만 쓴다
+        assertThat(report.getWarm().getPlanCacheMisses()).isZero();
+    }
+}
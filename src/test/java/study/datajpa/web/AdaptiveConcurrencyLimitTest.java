@@ -0,0 +1,86 @@
+package study.datajpa.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(50);
+
+    @Test
+    void rejectsWhenLimitAndQueueAreFull() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 2.0);
+
+        assertThat(limit.tryAcquire(0)).isTrue();
+        assertThat(limit.tryAcquire(0)).isTrue();
+        assertThat(limit.tryAcquire(0)).isFalse();
+        assertThat(limit.tryAcquire(TimeUnit.MILLISECONDS.toNanos(10))).isFalse();
+        assertThat(limit.getInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void waiterGetsReleasedSlot() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, 1, 2.0);
+        limit.tryAcquire(0);
+
+        Thread releaser = new Thread(() -> {
+            sleep(20);
+            limit.release(FAST, true);
+        });
+        releaser.start();
+
+        assertThat(limit.tryAcquire(TimeUnit.SECONDS.toNanos(1))).isTrue();
+        releaser.join();
+    }
+
+    @Test
+    void growsWhileFastAndSaturated() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 2.0);
+
+        for (int i = 0; i < 5; i++) {
+            fill(limit);
+            releaseAll(limit, FAST, true);
+        }
+
+        assertThat(limit.getLimit()).isGreaterThan(2);
+    }
+
+    @Test
+    void shrinksWhenLatencyRisesOrRequestsFail() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 10, 2.0);
+        limit.tryAcquire(0);
+        limit.release(FAST, true);
+
+        fill(limit);
+        releaseAll(limit, SLOW, true);
+        int afterSlow = limit.getLimit();
+        assertThat(afterSlow).isLessThan(10);
+
+        fill(limit);
+        releaseAll(limit, FAST, false);
+        assertThat(limit.getLimit()).isLessThan(afterSlow).isGreaterThanOrEqualTo(1);
+    }
+
+    private static void fill(AdaptiveConcurrencyLimit limit) throws InterruptedException {
+        while (limit.tryAcquire(0)) {
+        }
+    }
+
+    private static void releaseAll(AdaptiveConcurrencyLimit limit, long rtt, boolean success) {
+        while (limit.getInFlight() > 0) {
+            limit.release(rtt, success);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package study.datajpa.web;
+
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 회원 조회 API 의 select 가 모두 읽기 전용 트랜잭션(읽기 전용 커넥션) 안에서 나가는지 확인한다.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ReadOnlyQueryTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired MemberRepository memberRepository;
+    @Autowired SelectCapture selectCapture;
+
+    private Member member;
+
+    @BeforeEach
+    void setUp() {
+        member = memberRepository.save(new Member("readOnlyQuery", 10));
+        selectCapture.drain();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteById(member.getId());
+    }
+
+    @Test
+    void lookupAndListingRunReadOnly() throws Exception {
+        mockMvc.perform(get("/members/" + member.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/members2/" + member.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/members?page=0&size=10")).andExpect(status().isOk());
+        mockMvc.perform(get("/members/search?username=readOnlyQuery")).andExpect(status().isOk());
+
+        List<String> selects = selectCapture.drain();
+        assertThat(selects).isNotEmpty();
+        assertThat(selects).allMatch(s -> s.startsWith("readOnly=true"));
+    }
+
+    static class SelectCapture extends JdbcEventListener {
+        private final List<String> selects = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onAfterExecuteQuery(PreparedStatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+            String sql = statementInformation.getSql().trim();
+            if (!sql.regionMatches(true, 0, "select", 0, 6)) {
+                return;
+            }
+            boolean readOnly = TransactionSynchronizationManager.isActualTransactionActive()
+                    && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+            try {
+                readOnly &= statementInformation.getConnectionInformation().getConnection().isReadOnly();
+            } catch (SQLException ex) {
+                readOnly = false;
+            }
+            selects.add("readOnly=" + readOnly + " " + sql);
+        }
+
+        List<String> drain() {
+            List<String> result = new ArrayList<>(selects);
+            selects.clear();
+            return result;
+        }
+    }
+
+    @TestConfiguration
+    static class CaptureConfig {
+        @Bean
+        SelectCapture selectCapture() {
+            return new SelectCapture();
+        }
+    }
+}